@@ -0,0 +1,66 @@
+package benchmarks;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import stepDefination.ReqresUserService;
+import utilities.APIConnection;
+import utilities.ReqresStub;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API helpers: building request bodies and parsing user pages. Pages come from the in-process
+ * {@link ReqresStub} through the run-wide response cache, so the numbers are the framework's
+ * own cost of a cached page (lookup, parsing, log message), without the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Dapi.cache=run"})
+public class ApiBenchmarks {
+
+    private final APIConnection apiConnection = new APIConnection();
+    private final Map<String, String> newUser = new LinkedHashMap<>();
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        newUser.put("name", "morpheus");
+        newUser.put("job", "leader");
+        // Trial setup runs on the benchmark thread, which keeps the per thread base URL for all iterations
+        ReqresUserService.setBaseUrl(ReqresStub.start());
+        // createJSONObject prints every field; the cost of formatting stays, the terminal is left out
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ReqresUserService.getUsersDetailsByPage("/api/users?page=2");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+        ReqresStub.stop();
+    }
+
+    @Benchmark
+    public String createJSONObject() {
+        return apiConnection.createJSONObject(newUser);
+    }
+
+    @Benchmark
+    public JSONArray getUsersDetailsByPage() throws Exception {
+        return ReqresUserService.getUsersDetailsByPage("/api/users?page=2");
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openqa.selenium.WebDriver;
+import utilities.DriverManager;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per thread driver lookup through DriverManager, with as many threads as parallel scenarios
+ * commonly use. Step definitions and page objects get their driver from DriverFactory.getDriver(),
+ * which cannot be given a driver without launching a browser; it is the same ThreadLocal get plus
+ * a null check, so this measures that lookup too. The driver is a stand-in without a browser.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+@Fork(1)
+public class DriverAccessBenchmarks {
+
+    private WebDriver driver;
+
+    @Setup(Level.Trial)
+    public void setDriver() {
+        driver = (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(), new Class<?>[]{WebDriver.class},
+                (proxy, method, args) -> null);
+        DriverManager.setWebDriver(driver);
+    }
+
+    @TearDown(Level.Trial)
+    public void removeDriver() {
+        DriverManager.dr.remove();
+    }
+
+    @Benchmark
+    public WebDriver getDriver() {
+        return DriverManager.getDriver();
+    }
+
+    @Benchmark
+    public WebDriver setAndGetDriver() {
+        DriverManager.setWebDriver(driver);
+        return DriverManager.getDriver();
+    }
+}
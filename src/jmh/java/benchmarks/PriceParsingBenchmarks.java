@@ -0,0 +1,53 @@
+package benchmarks;
+
+import PageObjects.CheckoutStepTwoPage;
+import PageObjects.ProductRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Price parsing of the page objects on the text the browser returns: the inventory prices behind
+ * {@code InventoryPage.getItemPricesAsDouble} and the summary label behind
+ * {@code CheckoutStepTwoPage.getSubtotalAmount}. Reading the page itself needs a browser and is
+ * not part of these numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class PriceParsingBenchmarks {
+
+    private final List<ProductRecord> inventory = List.of(
+            product("Sauce Labs Backpack", "$29.99"),
+            product("Sauce Labs Bike Light", "$9.99"),
+            product("Sauce Labs Bolt T-Shirt", "$15.99"),
+            product("Sauce Labs Fleece Jacket", "$49.99"),
+            product("Sauce Labs Onesie", "$7.99"),
+            product("Test.allTheThings() T-Shirt (Red)", "$15.99"));
+    private final String subtotal = "Item total: $129.94";
+
+    @Benchmark
+    public List<Double> itemPricesAsDouble() {
+        return inventory.stream()
+                .map(ProductRecord::getPriceValue)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public double subtotalAmount() {
+        return CheckoutStepTwoPage.parseAmount(subtotal);
+    }
+
+    private static ProductRecord product(String name, String price) {
+        return new ProductRecord(name, "", price, null, "add-to-cart", "Add to cart");
+    }
+}
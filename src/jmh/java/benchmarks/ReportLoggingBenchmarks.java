@@ -0,0 +1,64 @@
+package benchmarks;
+
+import ExtentListeners.ExtentManager;
+import ExtentListeners.ExtentReportQueue;
+import ExtentListeners.ExtentTestManager;
+import com.aventstack.extentreports.ExtentTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of ExtentTestManager logging to the test thread. Every iteration logs a fixed batch of
+ * BATCH messages into a fresh test that is removed from the report afterwards, so the report model
+ * does not grow with the speed of the logger; scores and allocation are per batch. The writer
+ * thread is kept idle during the run, so only the logging thread's work is measured; the queued
+ * events are applied in the iteration teardown instead, so the queue does not grow between iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = ReportLoggingBenchmarks.BATCH)
+@Measurement(iterations = 20, batchSize = ReportLoggingBenchmarks.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Dreport.flushIntervalMillis=3600000"})
+public class ReportLoggingBenchmarks {
+
+    static final int BATCH = 10_000;
+
+    private ExtentTest test;
+
+    @Setup(Level.Iteration)
+    public void startTest() {
+        test = ExtentTestManager.startTest("Logging benchmark");
+    }
+
+    @TearDown(Level.Iteration)
+    public void endTest() {
+        ExtentTestManager.endTest();
+        ExtentTest finished = test;
+        // Removed on the queue, so only after the events logged to it have been applied
+        ExtentReportQueue.submit(() -> ExtentManager.getReporter().removeTest(finished));
+        ExtentReportQueue.drainNow();
+    }
+
+    @Benchmark
+    public void logInfo() {
+        ExtentTestManager.logInfo("Page : 2 | Users on page : 6");
+    }
+
+    @Benchmark
+    public void logPass() {
+        ExtentTestManager.logPass("GET request passed: GET request for page /api/users?page=2, Response Code: 200");
+    }
+}
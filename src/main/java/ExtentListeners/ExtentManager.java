@@ -3,61 +3,108 @@ package ExtentListeners;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
-import utilities.DriverManager;
-import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
+import utilities.Constants;
+import utilities.DriverFactory;
 
 import java.io.File;
-import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 
 public class ExtentManager {
  
 	static ExtentReports extent;
+	static StreamingReport streamingReport;
     static Date d = new Date();
-	static String fileName = "Extent_" + d.toString().replace(":", "_").replace(" ", "_") + ".html";
+	// Forked shards write their own partial report, merged afterwards by ExtentReportMerger
+	static String fileName = "Extent_" + d.toString().replace(":", "_").replace(" ", "_")
+			+ (System.getProperty("shard.index") != null ? "_shard-" + System.getProperty("shard.index") : "") + ".html";
     
     public synchronized static ExtentReports getReporter() {
         if (extent == null) {
-        	
-        	 ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(System.getProperty("user.dir")+"/reports/"+fileName);
-
- 	        htmlReporter.config().setTheme(Theme.STANDARD);
- 	        htmlReporter.config().setDocumentTitle(fileName);
- 	        htmlReporter.config().setEncoding("utf-8");
- 	        htmlReporter.config().setReportName(fileName);
- 	        
- 	       extent = new ExtentReports();
-	        extent.attachReporter(htmlReporter);
-	        extent.setSystemInfo("Automation Tester", "Aniruddha Chavan");
-	        extent.setSystemInfo("Organization", "Automation Architect");
-	        extent.setSystemInfo("Build no", "V1.0");
+        	extent = createReporter(System.getProperty("user.dir")+"/reports/"+fileName);
         }
         return extent;
     }
+
+    /**
+     * Check if scenario results are streamed to an event log instead of the Extent model (-Dreport.mode=stream)
+     * @return true in stream mode
+     */
+    public static boolean isStreaming() {
+    	return Constants.REPORT_MODE_STREAM.equals(System.getProperty(Constants.REPORT_MODE_PROPERTY, Constants.REPORT_MODE_EXTENT));
+    }
+
+    /**
+     * Get the report used in stream mode, writing reports/Extent_&lt;date&gt;.jsonl (or -Dreport.eventLog)
+     * and rendering the HTML next to it at the end
+     * @return Streaming report of this JVM
+     */
+    public synchronized static StreamingReport getStreamingReport() {
+    	if (streamingReport == null) {
+    		String eventLog = System.getProperty(Constants.REPORT_EVENT_LOG_PROPERTY);
+    		if (eventLog != null) {
+    			streamingReport = new StreamingReport(Paths.get(eventLog), Paths.get(eventLog.replaceAll("\\.jsonl$", "") + ".html"));
+    		} else {
+    			String reportPath = System.getProperty("user.dir") + "/reports/" + fileName;
+    			streamingReport = new StreamingReport(Paths.get(reportPath.replace(".html", ".jsonl")), Paths.get(reportPath));
+    		}
+    	}
+    	return streamingReport;
+    }
+
+    /**
+     * Write what was reported so far: re-render the Extent HTML, or push the streamed events to disk
+     */
+    static void flushReport() {
+    	if (isStreaming()) {
+    		getStreamingReport().flush();
+    	} else {
+    		getReporter().flush();
+    	}
+    }
+
+    /**
+     * Write the report a final time; in stream mode the HTML is rendered from the event log
+     */
+    static void closeReport() {
+    	if (isStreaming()) {
+    		getStreamingReport().close();
+    	} else {
+    		getReporter().flush();
+    	}
+    }
+
+    /**
+     * Create a new report writing to the given file
+     * @param reportPath Path of the HTML report
+     * @return Report with the standard theme and system info
+     */
+    public static ExtentReports createReporter(String reportPath) {
+    	String reportName = new File(reportPath).getName();
+    	ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(reportPath);
+
+        htmlReporter.config().setTheme(Theme.STANDARD);
+        htmlReporter.config().setDocumentTitle(reportName);
+        htmlReporter.config().setEncoding("utf-8");
+        htmlReporter.config().setReportName(reportName);
+
+        ExtentReports reports = new ExtentReports();
+        reports.attachReporter(htmlReporter);
+        reports.setSystemInfo("Automation Tester", "Aniruddha Chavan");
+        reports.setSystemInfo("Organization", "Automation Architect");
+        reports.setSystemInfo("Build no", "V1.0");
+        return reports;
+    }
   
-   
-   public static String screenshotPath;
-	public static String screenshotName;
-	static int i=0;
-	public static void captureScreenshot() {
-		i = i + 1;
-		File scrFile = ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.FILE);
-
-		Date d = new Date();
-		screenshotName = d.toString().replace(":", "_").replace(" ", "_") + "_"+i+".jpg";
-
-		try {
-			FileUtils.copyFile(scrFile, new File(System.getProperty("user.dir") + "/reports/" + screenshotName));
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-
-	
-	}
-	
+	/**
+	 * Take a screenshot of the current thread's browser; it is compressed and written in the background
+	 * @return File name relative to the reports directory, completed once the file is written
+	 */
+	public static CompletableFuture<String> captureScreenshot() {
+
+		return ScreenshotPipeline.capture(DriverFactory.getDriver());
 	}
 
+	}
@@ -0,0 +1,201 @@
+package ExtentListeners;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ExtentReportMerger combines the results of forked shards into a single Extent report.
+ * Shards started by the sharded launcher stream their report events to an event log
+ * (report-events.jsonl), which is replayed into the merged report with everything the
+ * scenarios logged: response codes and bodies, timings and screenshots. Results without an
+ * event log fall back to their Cucumber JSON, one test per scenario and one node per step,
+ * which only carries step names, statuses and errors.
+ */
+public class ExtentReportMerger {
+
+    /** File name of the report event log of a shard */
+    public static final String EVENT_LOG_NAME = "report-events.jsonl";
+
+    /**
+     * Merge the shard results below a results directory into one report: every report-events.jsonl,
+     * or every cucumber.json when no shard wrote an event log
+     * @param resultsDir Directory searched recursively for result files
+     * @param reportPath Path of the merged HTML report
+     * @return Number of scenarios written to the report
+     * @throws IOException if a result file cannot be read
+     */
+    public static int merge(Path resultsDir, String reportPath) throws IOException {
+        List<Path> eventLogs = find(resultsDir, EVENT_LOG_NAME);
+        if (!eventLogs.isEmpty()) {
+            return mergeEventLogs(eventLogs, reportPath);
+        }
+        List<Path> resultFiles = find(resultsDir, "cucumber.json");
+
+        ExtentReports reports = ExtentManager.createReporter(reportPath);
+        int scenarios = 0;
+        for (Path resultFile : resultFiles) {
+            String content = new String(Files.readAllBytes(resultFile), StandardCharsets.UTF_8).trim();
+            if (content.isEmpty()) {
+                System.err.println("Skipping empty result file " + resultFile);
+                continue;
+            }
+            JSONArray features = new JSONArray(content);
+            for (int i = 0; i < features.length(); i++) {
+                scenarios += addFeature(reports, features.getJSONObject(i));
+            }
+        }
+        reports.flush();
+        System.out.println("Merged " + scenarios + " scenarios from " + resultFiles.size() + " result files into " + reportPath);
+        return scenarios;
+    }
+
+    /**
+     * Replay shard report event logs into one Extent report
+     * @param eventLogs Event logs written by {@link StreamingReport}
+     * @param reportPath Path of the merged HTML report
+     * @return Number of tests written to the report
+     * @throws IOException if an event log cannot be read
+     */
+    public static int mergeEventLogs(List<Path> eventLogs, String reportPath) throws IOException {
+        ExtentReports reports = ExtentManager.createReporter(reportPath);
+        int tests = 0;
+        for (Path eventLog : eventLogs) {
+            // Test ids are only unique within one log
+            Map<Long, ExtentTest> started = new HashMap<>();
+            try (BufferedReader in = Files.newBufferedReader(eventLog, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    JSONObject event;
+                    try {
+                        event = new JSONObject(line);
+                    } catch (JSONException e) {
+                        continue;
+                    }
+                    long id = event.optLong("id");
+                    switch (event.optString("event")) {
+                        case "start":
+                            ExtentTest test = reports.createTest(event.optString("name"), event.optString("description"));
+                            test.getModel().setStartTime(new Date(event.optLong("time")));
+                            started.put(id, test);
+                            tests++;
+                            break;
+                        case "log":
+                            ExtentTest logged = started.get(id);
+                            if (logged != null) {
+                                addLog(logged, event);
+                            }
+                            break;
+                        case "end":
+                            ExtentTest ended = started.get(id);
+                            if (ended != null) {
+                                ended.getModel().setEndTime(new Date(event.optLong("time")));
+                            }
+                            break;
+                        default:
+                    }
+                }
+            }
+        }
+        reports.flush();
+        System.out.println("Merged " + tests + " scenarios from " + eventLogs.size() + " report event logs into " + reportPath);
+        return tests;
+    }
+
+    private static void addLog(ExtentTest test, JSONObject event) {
+        Status status;
+        try {
+            status = Status.valueOf(event.optString("status").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            status = Status.INFO;
+        }
+        String message = event.optString("message");
+        if (!event.has("media")) {
+            test.log(status, message);
+            return;
+        }
+        try {
+            test.log(status, message, MediaEntityBuilder.createScreenCaptureFromPath(event.getString("media")).build());
+        } catch (IOException e) {
+            test.log(status, message + " (screenshot " + event.getString("media") + ")");
+        }
+    }
+
+    private static List<Path> find(Path resultsDir, String fileName) throws IOException {
+        try (Stream<Path> files = Files.walk(resultsDir)) {
+            return files.filter(file -> file.getFileName().toString().equals(fileName))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int addFeature(ExtentReports reports, JSONObject feature) {
+        JSONArray elements = feature.optJSONArray("elements");
+        JSONObject background = null;
+        int scenarios = 0;
+        for (int i = 0; elements != null && i < elements.length(); i++) {
+            JSONObject element = elements.getJSONObject(i);
+            if ("background".equals(element.optString("type"))) {
+                background = element;
+                continue;
+            }
+
+            ExtentTest test = reports.createTest(element.optString("name"),
+                    feature.optString("name") + " - " + feature.optString("uri") + ":" + element.optLong("line"));
+            JSONArray tags = element.optJSONArray("tags");
+            for (int j = 0; tags != null && j < tags.length(); j++) {
+                test.assignCategory(tags.getJSONObject(j).optString("name"));
+            }
+            if (background != null) {
+                addSteps(test, background.optJSONArray("steps"));
+                background = null;
+            }
+            addSteps(test, element.optJSONArray("steps"));
+            scenarios++;
+        }
+        return scenarios;
+    }
+
+    private static void addSteps(ExtentTest test, JSONArray steps) {
+        for (int i = 0; steps != null && i < steps.length(); i++) {
+            JSONObject step = steps.getJSONObject(i);
+            JSONObject result = step.optJSONObject("result");
+            String status = result == null ? "skipped" : result.optString("status");
+            String details = step.optString("keyword") + step.optString("name");
+
+            ExtentTest node = test.createNode(details);
+            if ("passed".equals(status)) {
+                node.pass(details);
+            } else if ("failed".equals(status)) {
+                node.fail(result.optString("error_message", details));
+            } else {
+                node.skip(details + " (" + status + ")");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultsDir = Paths.get(args.length > 0 ? args[0] : "target/shards");
+        String reportPath = args.length > 1 ? args[1] : System.getProperty("user.dir") + "/reports/Extent_merged_"
+                + new Date().toString().replace(":", "_").replace(" ", "_") + ".html";
+        merge(resultsDir, reportPath);
+    }
+}
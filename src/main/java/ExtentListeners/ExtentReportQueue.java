@@ -0,0 +1,111 @@
+package ExtentListeners;
+
+import utilities.Constants;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ExtentReportQueue moves report work off the test threads. Log events are put on a lock-free
+ * queue and applied to the ExtentReports model in batches by one background writer thread.
+ * Tests are still created on the test threads (ExtentTestManager.startTest calls createTest
+ * outside stream mode), which relies on ExtentReports synchronizing createTest; everything
+ * logged to a test goes through the queue. Flush requests are coalesced: the HTML report
+ * is re-rendered at most once per -Dreport.flushIntervalMillis, and once more at shutdown.
+ * In stream mode the writer appends to the {@link StreamingReport} event log instead.
+ */
+public class ExtentReportQueue {
+
+	private static final Queue<Runnable> events = new ConcurrentLinkedQueue<Runnable>();
+	private static final AtomicBoolean flushRequested = new AtomicBoolean();
+	private static final long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+			Long.getLong(Constants.REPORT_FLUSH_INTERVAL_PROPERTY, Constants.REPORT_FLUSH_INTERVAL_MILLIS));
+	private static final Object writeLock = new Object();
+
+	static {
+		Thread writer = new Thread(ExtentReportQueue::writeLoop, "extent-writer");
+		writer.setDaemon(true);
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(ExtentReportQueue::close, "extent-final-flush"));
+	}
+
+	/**
+	 * Queue a change of the report model
+	 * @param event Change, applied on the writer thread in submission order
+	 */
+	public static void submit(Runnable event) {
+		events.add(event);
+	}
+
+	/**
+	 * Ask for the report to be written; requests within one flush interval are written together
+	 */
+	public static void requestFlush() {
+		flushRequested.set(true);
+	}
+
+	/**
+	 * Apply all queued events and write the report now, e.g. before a launcher exits
+	 */
+	public static void flushNow() {
+		synchronized (writeLock) {
+			drain();
+			flushRequested.set(false);
+			ExtentManager.flushReport();
+		}
+	}
+
+	/**
+	 * Apply all queued events without writing the report, e.g. between benchmark iterations
+	 */
+	public static void drainNow() {
+		synchronized (writeLock) {
+			drain();
+		}
+	}
+
+	/**
+	 * Apply all queued events and write the final report; in stream mode this renders the HTML
+	 */
+	public static void close() {
+		ScreenshotPipeline.shutdown(Constants.SCREENSHOT_SHUTDOWN_TIMEOUT_MILLIS);
+		synchronized (writeLock) {
+			drain();
+			flushRequested.set(false);
+			ExtentManager.closeReport();
+		}
+	}
+
+	private static void writeLoop() {
+		while (true) {
+			LockSupport.parkNanos(flushIntervalNanos);
+			try {
+				synchronized (writeLock) {
+					drain();
+					if (flushRequested.getAndSet(false)) {
+						ExtentManager.flushReport();
+					}
+				}
+			} catch (RuntimeException e) {
+				System.err.println("Extent report writer failed: " + e);
+			}
+		}
+	}
+
+	private static void drain() {
+		Runnable event;
+		while ((event = events.poll()) != null) {
+			try {
+				event.run();
+			} catch (RuntimeException e) {
+				System.err.println("Dropped Extent log event: " + e);
+			}
+		}
+	}
+
+	private ExtentReportQueue() {
+	}
+}
@@ -1,19 +1,31 @@
 package ExtentListeners;
 
-import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.MediaEntityModelProvider;
 import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.markuputils.ExtentColor;
 import com.aventstack.extentreports.markuputils.Markup;
 import com.aventstack.extentreports.markuputils.MarkupHelper;
 
 import java.io.IOException;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per thread Extent tests. The log methods do nothing on threads without a started test,
+ * e.g. when steps are replayed by the load generator. Log events are queued and applied to
+ * the report by the {@link ExtentReportQueue} writer thread, so logging does not block the test.
+ * With -Dreport.mode=stream the events go to the {@link StreamingReport} event log instead and
+ * no ExtentTest exists, so getTest() returns null.
+ */
 public class ExtentTestManager {
 
 	public static ThreadLocal<ExtentTest> testReport = new ThreadLocal<ExtentTest>();
-	static ExtentReports extent = ExtentListeners.ExtentManager.getReporter();
+	private static final ThreadLocal<Long> streamedTest = new ThreadLocal<Long>();
+	private static final ThreadLocal<List<CompletableFuture<String>>> pendingScreenshots =
+			ThreadLocal.withInitial(ArrayList::new);
 
 	public static synchronized ExtentTest getTest() {
 
@@ -22,66 +34,55 @@ public class ExtentTestManager {
 
 	public static void logInfo(String message) {
 
-		testReport.get().info(message);
+		log(Status.INFO, message, null);
 	}
 
 	public static void logPass(String message) {
 
-		testReport.get().pass(message);
+		log(Status.PASS, message, null);
 	}
 
 	public static void scenarioPass() {
 
 		String passLogg = "SCENARIO PASSED";
 		Markup m = MarkupHelper.createLabel(passLogg, ExtentColor.GREEN);
-		testReport.get().log(Status.PASS, m);
-	
-	
+		log(Status.PASS, m, null);
+
+
 	}
 
 	public static void scenarioFail() {
 
 		String failLogg = "SCENARIO FAILED";
 		Markup m = MarkupHelper.createLabel(failLogg, ExtentColor.RED);
-		testReport.get().log(Status.FAIL, m);
+		log(Status.FAIL, m, null);
 
 
 	}
 
 	public static void logFail(String message) {
 
-		testReport.get().fail(message);
+		log(Status.FAIL, message, null);
 	}
 
-	public static synchronized boolean addScreenShotsOnFailure() {
-
-		ExtentListeners.ExtentManager.captureScreenshot();
-		try {
-
-			testReport.get().fail("<b>" + "<font color=" + "red>" + "Screenshot of failure" + "</font>" + "</b>",
-					MediaEntityBuilder.createScreenCaptureFromPath(ExtentListeners.ExtentManager.screenshotName).build());
-		} catch (Exception e) {
-
-		}
+	/**
+	 * Attach a screenshot to the test as failure; {@link #scenarioFail()} adds the failed label.
+	 * The screenshot is encoded in the background and linked in the report once its file is written.
+	 * @return File name of the screenshot relative to the reports directory
+	 */
+	public static CompletableFuture<String> addScreenShotsOnFailure() {
 
-		String failureLogg = "SCENARIO FAILED";
-		Markup m = MarkupHelper.createLabel(failureLogg, ExtentColor.RED);
-		testReport.get().log(Status.FAIL, m);
-		return true;
+		return logScreenshot(Status.FAIL,
+				"<b>" + "<font color=" + "red>" + "Screenshot of failure" + "</font>" + "</b>");
 	}
 
-	public static synchronized boolean addScreenShots() {
+	/**
+	 * Attach a screenshot to the test, encoded in the background and linked once its file is written
+	 * @return File name of the screenshot relative to the reports directory
+	 */
+	public static CompletableFuture<String> addScreenShots() {
 
-		ExtentListeners.ExtentManager.captureScreenshot();
-		try {
-			testReport.get().info(("<b>" + "<font color=" + "green>" + "Screenshot" + "</font>" + "</b>"),
-					MediaEntityBuilder.createScreenCaptureFromPath(ExtentListeners.ExtentManager.screenshotName).build());
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-
-		return true;
+		return logScreenshot(Status.INFO, ("<b>" + "<font color=" + "green>" + "Screenshot" + "</font>" + "</b>"));
 	}
 
 	public static synchronized ExtentTest startTest(String testName) {
@@ -89,9 +90,89 @@ public class ExtentTestManager {
 	}
 
 	public static synchronized ExtentTest startTest(String testName, String desc) {
-		ExtentTest test = extent.createTest(testName, desc);
+		if (ExtentManager.isStreaming()) {
+			StreamingReport report = ExtentManager.getStreamingReport();
+			long id = report.newTestId();
+			long time = System.currentTimeMillis();
+			streamedTest.set(id);
+			ExtentReportQueue.submit(() -> report.startTest(id, testName, desc, time));
+			return null;
+		}
+		// Created on the test thread, safe only because ExtentReports synchronizes createTest
+		ExtentTest test = ExtentManager.getReporter().createTest(testName, desc);
 		testReport.set(test);
 		return test;
 	}
 
+	/**
+	 * Detach the test from the thread and ask for the report to be written with the next batch
+	 */
+	public static void endTest() {
+
+		Long id = streamedTest.get();
+		if (id != null) {
+			StreamingReport report = ExtentManager.getStreamingReport();
+			long time = System.currentTimeMillis();
+			// The test ends in the event log after its screenshots, without waiting for them here
+			CompletableFuture.allOf(pendingScreenshots.get().toArray(new CompletableFuture<?>[0]))
+					.whenComplete((ignored, error) -> ExtentReportQueue.submit(() -> report.endTest(id, time)));
+		}
+		testReport.remove();
+		streamedTest.remove();
+		pendingScreenshots.remove();
+		ExtentReportQueue.requestFlush();
+	}
+
+	private static void log(Status status, Markup markup, String mediaPath) {
+		ExtentTest test = testReport.get();
+		if (test != null) {
+			ExtentReportQueue.submit(() -> test.log(status, markup));
+		} else {
+			log(status, markup.getMarkup(), mediaPath);
+		}
+	}
+
+	private static CompletableFuture<String> logScreenshot(Status status, String message) {
+		ExtentTest test = testReport.get();
+		Long id = streamedTest.get();
+		CompletableFuture<String> screenshot = ExtentManager.captureScreenshot();
+		if (test != null || id != null) {
+			pendingScreenshots.get().add(screenshot);
+			screenshot.whenComplete((name, error) -> {
+				if (error != null) {
+					System.err.println("Screenshot not attached: " + error);
+				} else {
+					log(test, id, status, message, name);
+				}
+			});
+		}
+		return screenshot;
+	}
+
+	private static void log(Status status, String message, String mediaPath) {
+		log(testReport.get(), streamedTest.get(), status, message, mediaPath);
+	}
+
+	private static void log(ExtentTest test, Long id, Status status, String message, String mediaPath) {
+		if (id != null) {
+			StreamingReport report = ExtentManager.getStreamingReport();
+			long time = System.currentTimeMillis();
+			ExtentReportQueue.submit(() -> report.log(id, status, message, mediaPath, time));
+			return;
+		}
+		if (test == null) {
+			return;
+		}
+		if (mediaPath == null) {
+			ExtentReportQueue.submit(() -> test.log(status, message));
+			return;
+		}
+		try {
+			MediaEntityModelProvider screenshot = MediaEntityBuilder.createScreenCaptureFromPath(mediaPath).build();
+			ExtentReportQueue.submit(() -> test.log(status, message, screenshot));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 }
@@ -0,0 +1,154 @@
+package ExtentListeners;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import utilities.Constants;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ScreenshotPipeline takes screenshots without holding up the test thread longer than the
+ * browser needs to produce the PNG bytes. Decoding, compressing to -Dscreenshot.format at
+ * -Dscreenshot.quality and writing to the reports directory happen on background encoder
+ * threads. Every capture gets its own file name and there is no shared lock, so parallel
+ * scenarios do not wait for each other. WebP needs an ImageIO WebP plugin on the class path;
+ * without one JPEG is written.
+ */
+public class ScreenshotPipeline {
+
+	private static final AtomicInteger counter = new AtomicInteger();
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+	private static final String format = resolveFormat(System.getProperty(Constants.SCREENSHOT_FORMAT_PROPERTY, Constants.SCREENSHOT_FORMAT));
+	private static final float quality = Float.parseFloat(System.getProperty(Constants.SCREENSHOT_QUALITY_PROPERTY,
+			String.valueOf(Constants.SCREENSHOT_QUALITY)));
+	private static final ExecutorService encoder = Executors.newFixedThreadPool(
+			Math.max(1, Integer.getInteger(Constants.SCREENSHOT_ENCODER_THREADS_PROPERTY, Constants.SCREENSHOT_ENCODER_THREADS)),
+			task -> {
+				Thread thread = new Thread(task, "screenshot-encoder-" + threadCounter.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/**
+	 * Take a screenshot of the browser and encode it in the background
+	 * @param driver Browser of the calling thread
+	 * @param directory Directory the file is written to
+	 * @return File name relative to the directory, completed once the file is written
+	 */
+	public static CompletableFuture<String> capture(WebDriver driver, Path directory) {
+		// Only grabbing the bytes needs the browser, and the driver belongs to the calling thread
+		byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+		String name = "screenshot_" + System.currentTimeMillis() + "_" + counter.incrementAndGet() + "." + format;
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				encode(png, directory.resolve(name));
+				return name;
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot write screenshot " + name, e);
+			}
+		}, encoder);
+	}
+
+	/**
+	 * Take a screenshot into the reports directory
+	 * @param driver Browser of the calling thread
+	 * @return File name relative to the reports directory, completed once the file is written
+	 */
+	public static CompletableFuture<String> capture(WebDriver driver) {
+		return capture(driver, Paths.get(System.getProperty("user.dir"), "reports"));
+	}
+
+	/**
+	 * Finish the screenshots still being encoded and stop the encoder, before the final report is written
+	 * @param timeoutMillis Maximum time to wait
+	 */
+	static void shutdown(long timeoutMillis) {
+		encoder.shutdown();
+		try {
+			if (!encoder.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				System.err.println("Screenshots still encoding after " + timeoutMillis + " ms, not waiting for them");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void encode(byte[] png, Path file) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+		if ("png".equals(format)) {
+			Files.write(partial, png);
+		} else {
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+			if (image == null) {
+				throw new IOException("Screenshot is not a readable PNG");
+			}
+			ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+			try (ImageOutputStream out = ImageIO.createImageOutputStream(partial.toFile())) {
+				ImageWriteParam param = writer.getDefaultWriteParam();
+				if (param.canWriteCompressed()) {
+					param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+					if (param.getCompressionType() == null) {
+						param.setCompressionType(param.getCompressionTypes()[0]);
+					}
+					param.setCompressionQuality(quality);
+				}
+				writer.setOutput(out);
+				writer.write(null, new IIOImage(withoutAlpha(image), null, null), param);
+			} finally {
+				writer.dispose();
+			}
+		}
+		// Readers of the report never see a half written file
+		Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static BufferedImage withoutAlpha(BufferedImage image) {
+		// JPEG has no alpha channel; the PNG screenshot usually has one
+		if (!image.getColorModel().hasAlpha()) {
+			return image;
+		}
+		BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+		rgb.createGraphics().drawImage(image, 0, 0, java.awt.Color.WHITE, null);
+		return rgb;
+	}
+
+	private static String resolveFormat(String requested) {
+		String format = requested.toLowerCase(Locale.ROOT);
+		if ("jpeg".equals(format)) {
+			format = "jpg";
+		}
+		if ("png".equals(format)) {
+			return format;
+		}
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext()) {
+			System.err.println("No ImageIO writer for screenshot format " + requested + ", writing jpg");
+			return "jpg";
+		}
+		return format;
+	}
+
+	private ScreenshotPipeline() {
+	}
+}
@@ -0,0 +1,275 @@
+package ExtentListeners;
+
+import com.aventstack.extentreports.Status;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StreamingReport is the report of -Dreport.mode=stream. Test starts, log entries and test ends
+ * are appended to a JSON lines event log as they happen and nothing is kept in memory, so heap
+ * use does not grow with the suite. The HTML report is rendered from the log once, at the end,
+ * in a single pass that only holds the tests still running at that point of the log. A crashed
+ * run leaves the event log behind; render it with
+ * <pre>
+ * java -cp ... ExtentListeners.StreamingReport reports/Extent_&lt;date&gt;.jsonl
+ * </pre>
+ * All methods except newTestId are called on the {@link ExtentReportQueue} writer thread.
+ */
+public class StreamingReport {
+
+	private final Path eventLog;
+	private final Path htmlPath;
+	private final AtomicLong testIds = new AtomicLong();
+	private BufferedWriter out;
+	private boolean closed;
+
+	public StreamingReport(Path eventLog, Path htmlPath) {
+		this.eventLog = eventLog;
+		this.htmlPath = htmlPath;
+	}
+
+	/**
+	 * Reserve the id of a new test
+	 * @return Id unique within this report
+	 */
+	public long newTestId() {
+		return testIds.incrementAndGet();
+	}
+
+	public void startTest(long id, String name, String description, long time) {
+		append(new JSONObject().put("event", "start").put("id", id).put("name", name)
+				.put("description", description == null ? "" : description).put("time", time));
+	}
+
+	public void log(long id, Status status, String message, String mediaPath, long time) {
+		JSONObject event = new JSONObject().put("event", "log").put("id", id).put("status", status.toString())
+				.put("message", message == null ? "" : message).put("time", time);
+		if (mediaPath != null) {
+			event.put("media", mediaPath);
+		}
+		append(event);
+	}
+
+	public void endTest(long id, long time) {
+		append(new JSONObject().put("event", "end").put("id", id).put("time", time));
+	}
+
+	/**
+	 * Push the appended events to the file, so a crashed run keeps everything up to here
+	 */
+	public void flush() {
+		try {
+			if (out != null) {
+				out.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot write report event log " + eventLog, e);
+		}
+	}
+
+	/**
+	 * Close the event log and render the HTML report from it; later events are dropped
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (out != null) {
+				out.close();
+			}
+			if (Files.exists(eventLog)) {
+				int tests = render(eventLog, htmlPath);
+				System.out.println("Rendered " + tests + " tests from " + eventLog + " into " + htmlPath);
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot render report from " + eventLog + ": " + e);
+		}
+	}
+
+	private void append(JSONObject event) {
+		if (closed) {
+			System.err.println("Report already closed, dropping event " + event);
+			return;
+		}
+		try {
+			if (out == null) {
+				Files.createDirectories(eventLog.toAbsolutePath().getParent());
+				out = Files.newBufferedWriter(eventLog, StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			}
+			out.write(event.toString());
+			out.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot write report event log " + eventLog, e);
+		}
+	}
+
+	/**
+	 * Render an event log into an HTML report in one pass. Tests are written in the order they
+	 * ended; tests without an end event (e.g. after a crash) are written last as incomplete.
+	 * Unreadable lines, such as a line cut off by a crash, are skipped.
+	 * @param eventLog JSON lines event log
+	 * @param htmlPath Path of the HTML report, replaced when rendering is complete
+	 * @return Number of tests in the report
+	 * @throws IOException if the log cannot be read or the report cannot be written
+	 */
+	public static int render(Path eventLog, Path htmlPath) throws IOException {
+		Map<Long, TestEntry> running = new LinkedHashMap<Long, TestEntry>();
+		Map<String, Integer> counts = new TreeMap<String, Integer>();
+		Path partial = htmlPath.resolveSibling(htmlPath.getFileName() + ".tmp");
+		int tests = 0;
+		try (BufferedReader in = Files.newBufferedReader(eventLog, StandardCharsets.UTF_8);
+			 Writer html = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+			String title = escape(htmlPath.getFileName().toString());
+			html.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>" + title + "</title><style>"
+					+ "body{font-family:sans-serif;margin:0;display:flex;flex-direction:column}"
+					+ "header{order:-2;background:#263238;color:#fff;padding:12px 20px}"
+					+ "#summary{order:-1;padding:8px 20px;background:#eceff1}"
+					+ ".test{margin:8px 20px;border:1px solid #cfd8dc;border-radius:4px}"
+					+ ".test>summary{padding:8px;cursor:pointer}"
+					+ "table{border-collapse:collapse;width:100%}td{border-top:1px solid #eceff1;padding:4px 8px;vertical-align:top}"
+					+ ".pass{color:#2e7d32}.fail,.fatal,.error{color:#c62828}.warning,.incomplete{color:#ef6c00}"
+					+ ".skip{color:#1565c0}.info,.debug{color:#546e7a}"
+					+ "</style></head><body><header>" + title + "</header>\n");
+
+			String line;
+			while ((line = in.readLine()) != null) {
+				JSONObject event;
+				try {
+					event = new JSONObject(line);
+				} catch (JSONException e) {
+					continue;
+				}
+				long id = event.optLong("id");
+				switch (event.optString("event")) {
+					case "start":
+						running.put(id, new TestEntry(event.optString("name"), event.optString("description"), event.optLong("time")));
+						break;
+					case "log":
+						TestEntry logged = running.get(id);
+						if (logged != null) {
+							logged.logs.add(event);
+						}
+						break;
+					case "end":
+						TestEntry ended = running.remove(id);
+						if (ended != null) {
+							writeTest(html, ended, event.optLong("time"), counts);
+							tests++;
+						}
+						break;
+					default:
+				}
+			}
+			for (TestEntry incomplete : running.values()) {
+				incomplete.incomplete = true;
+				writeTest(html, incomplete, 0, counts);
+				tests++;
+			}
+
+			// Written last to keep the pass single, shown first through the flex order
+			html.write("<div id=\"summary\">Tests: " + tests);
+			for (Map.Entry<String, Integer> count : counts.entrySet()) {
+				html.write(" | <span class=\"" + count.getKey() + "\">" + count.getKey() + ": " + count.getValue() + "</span>");
+			}
+			html.write("</div></body></html>\n");
+		}
+		Files.move(partial, htmlPath, StandardCopyOption.REPLACE_EXISTING);
+		return tests;
+	}
+
+	private static void writeTest(Writer html, TestEntry test, long endTime, Map<String, Integer> counts) throws IOException {
+		String status = test.incomplete ? "incomplete" : test.status();
+		counts.merge(status, 1, Integer::sum);
+		SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+		html.write("<details class=\"test\"" + ("pass".equals(status) ? "" : " open") + "><summary><b class=\"" + status + "\">"
+				+ status.toUpperCase() + "</b> " + escape(test.name)
+				+ (test.description.isEmpty() ? "" : " - " + escape(test.description))
+				+ " <small>" + timeFormat.format(new Date(test.startTime))
+				+ (endTime > 0 ? ", " + (endTime - test.startTime) + " ms" : "") + "</small></summary><table>");
+		for (JSONObject log : test.logs) {
+			String logStatus = log.optString("status");
+			html.write("<tr><td class=\"" + logStatus + "\">" + logStatus + "</td><td>"
+					+ timeFormat.format(new Date(log.optLong("time"))) + "</td><td>"
+					// Messages may carry markup like Extent labels, as in the Extent report
+					+ log.optString("message")
+					+ (log.has("media") ? "<br><a href=\"" + escape(log.getString("media")) + "\"><img src=\""
+					+ escape(log.getString("media")) + "\" style=\"max-width:400px\"></a>" : "")
+					+ "</td></tr>");
+		}
+		html.write("</table></details>\n");
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	/**
+	 * Render the event log of a run, e.g. one that crashed before rendering
+	 * @param args Event log, optionally followed by the HTML path (the log path with .html by default)
+	 * @throws IOException if the log cannot be read or the report cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: StreamingReport <events.jsonl> [report.html]");
+			System.exit(2);
+		}
+		Path eventLog = Paths.get(args[0]);
+		Path htmlPath = Paths.get(args.length > 1 ? args[1] : args[0].replaceAll("\\.jsonl$", "") + ".html");
+		int tests = render(eventLog, htmlPath);
+		System.out.println("Rendered " + tests + " tests from " + eventLog + " into " + htmlPath);
+	}
+
+	/**
+	 * A test whose end event has not been read yet
+	 */
+	private static class TestEntry {
+		private final String name;
+		private final String description;
+		private final long startTime;
+		private final List<JSONObject> logs = new ArrayList<JSONObject>();
+		private boolean incomplete;
+
+		TestEntry(String name, String description, long startTime) {
+			this.name = name;
+			this.description = description;
+			this.startTime = startTime;
+		}
+
+		String status() {
+			String status = "pass";
+			for (JSONObject log : logs) {
+				String logStatus = log.optString("status");
+				if ("fail".equals(logStatus) || "fatal".equals(logStatus) || "error".equals(logStatus)) {
+					return "fail";
+				}
+				if ("warning".equals(logStatus) || "skip".equals(logStatus)) {
+					status = logStatus;
+				}
+			}
+			return status;
+		}
+	}
+}
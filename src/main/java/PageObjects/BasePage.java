@@ -1,20 +1,99 @@
 package PageObjects;
 
-import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import utilities.AdaptiveWait;
+import utilities.Constants;
+import utilities.TimingCollector;
+
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class BasePage {
+
+    /**
+     * Resolves once the condition holds and no DOM mutation happened for the quiet period.
+     * Arguments: condition arguments, quiet period millis, timeout millis, callback.
+     * The condition is re-checked on every mutation instead of polling, so the wait ends as soon
+     * as the page has actually updated.
+     */
+    private static final String DOM_WAIT_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "var args = arguments[0], quiet = arguments[1], timeout = arguments[2];" +
+            "var condition = function(args) { %s };" +
+            "var quietTimer = null, finished = false;" +
+            "var finish = function(result) {" +
+            "  if (finished) { return; }" +
+            "  finished = true; observer.disconnect(); clearTimeout(quietTimer); clearTimeout(timeoutTimer); done(result);" +
+            "};" +
+            "var check = function() {" +
+            "  clearTimeout(quietTimer);" +
+            "  var met = false;" +
+            "  try { met = condition(args); } catch (e) { met = false; }" +
+            "  if (met) { quietTimer = setTimeout(function() { finish(true); }, quiet); }" +
+            "};" +
+            "var observer = new MutationObserver(check);" +
+            "observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});" +
+            "var timeoutTimer = setTimeout(function() { finish(false); }, timeout);" +
+            "check();";
+
+    /**
+     * Installs the MutationObserver counting DOM changes of the current document, unless it is
+     * already there. A new document starts again from zero.
+     */
+    private static final String INSTALL_MUTATION_COUNTER =
+            "var installed = window.__pageMutationCount !== undefined;" +
+            "if (!installed) {" +
+            "  window.__pageMutationCount = 0;" +
+            "  new MutationObserver(function(mutations) { window.__pageMutationCount += mutations.length; })" +
+            "      .observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});" +
+            "}";
+
+    /**
+     * Reads name, description, price, quantity and button state of every item matching
+     * arguments[0] in one round trip, with the DOM mutation count the items were read at.
+     * innerText is used so values match WebElement.getText().
+     */
+    private static final String READ_PRODUCTS_SCRIPT =
+            INSTALL_MUTATION_COUNTER +
+            "var products = Array.prototype.map.call(document.querySelectorAll(arguments[0]), function(item) {" +
+            "  var text = function(selector) {" +
+            "    var element = item.querySelector(selector);" +
+            "    return element ? element.innerText.trim() : null;" +
+            "  };" +
+            "  var button = item.querySelector('button');" +
+            "  return {name: text('.inventory_item_name'), description: text('.inventory_item_desc')," +
+            "          price: text('.inventory_item_price'), quantity: text('.cart_quantity')," +
+            "          buttonId: button ? button.id : null, buttonText: button ? button.innerText.trim() : null};" +
+            "});" +
+            "return {mutationCount: window.__pageMutationCount, products: products};";
+
+    /**
+     * Returns the number of DOM mutations seen on the current document, or -1 when the counter
+     * had to be installed, i.e. another document was loaded since the last count.
+     */
+    private static final String DOM_MUTATION_COUNT_SCRIPT =
+            INSTALL_MUTATION_COUNTER +
+            "return installed ? window.__pageMutationCount : -1;";
+
     protected WebDriver driver;
-    protected WebDriverWait wait;
-    protected Wait fluentWait;
+    // Data read from the page, reused until a page object acts on the browser (or the DOM changes, see snapshot)
+    private final Map<String, Snapshot> snapshots = new HashMap<>();
+    protected Wait<WebDriver> wait;
+    protected Wait<WebDriver> fluentWait;
 
     // Common header elements
     @FindBy(className = "app_logo")
@@ -42,10 +121,44 @@ public class BasePage {
     protected WebElement allItemsLink;
 
     public BasePage(WebDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        this.fluentWait = new FluentWait(driver).withTimeout(Duration.ofSeconds(60)).ignoring(NoSuchElementException.class).pollingEvery(Duration.ofMillis(500));
-        PageFactory.initElements(driver, this);
+        // Actions through the tracked driver invalidate the snapshots of every page object of this browser
+        this.driver = PageStateTracker.track(driver);
+        this.wait = createWait();
+        this.fluentWait = createWait(Duration.ofSeconds(60));
+        PageFactory.initElements(this.driver, this);
+    }
+
+    /**
+     * Create a wait polling with exponential backoff, configured for this page
+     * @return Wait using the timeout set with -Dwait.&lt;Page&gt;.timeoutMillis or -Dwait.timeoutMillis, 10 seconds by default
+     */
+    protected Wait<WebDriver> createWait() {
+        return AdaptiveWait.forPage(driver, getClass());
+    }
+
+    /**
+     * Create a wait polling with exponential backoff, configured for this page
+     * @param timeout Maximum time to wait
+     * @return Wait using the given timeout
+     */
+    protected Wait<WebDriver> createWait(Duration timeout) {
+        return AdaptiveWait.forPage(driver, getClass(), timeout);
+    }
+
+    /**
+     * Run a navigation and record the time until the target page reports itself loaded
+     * in the {@link TimingCollector}, under the simple class name of the target page
+     * @param navigation Action leaving this page, returning the target page or null
+     * @param loaded Check that the target page is loaded
+     * @return Target page as returned by the navigation
+     */
+    protected <T extends BasePage> T timeNavigation(Supplier<T> navigation, Predicate<T> loaded) {
+        long start = System.nanoTime();
+        T page = navigation.get();
+        if (page != null && loaded.test(page)) {
+            TimingCollector.record(page.getClass().getSimpleName(), System.nanoTime() - start);
+        }
+        return page;
     }
 
     public void clickHamburgerMenu() {
@@ -76,4 +189,162 @@ public class BasePage {
     public String getAppTitle() {
         return wait.until(ExpectedConditions.visibilityOf(appLogo)).getText();
     }
+
+    // ========================
+    // BULK EXTRACTION METHODS
+    // ========================
+
+    /**
+     * Read all product items of the page with a single JavaScript call
+     * @param itemSelector CSS selector of the item containers, e.g. ".inventory_item" or ".cart_item"
+     * @return Products in page order
+     */
+    protected List<ProductRecord> readProducts(String itemSelector) {
+        return snapshot("products:" + itemSelector, trackMutations -> {
+            // Read through the untracked driver, reading must not invalidate the snapshots
+            Object result = ((JavascriptExecutor) PageStateTracker.unwrap(driver)).executeScript(READ_PRODUCTS_SCRIPT, itemSelector);
+            List<ProductRecord> products = new ArrayList<>();
+            long mutationCount = -1;
+            if (result instanceof Map) {
+                Map<?, ?> read = (Map<?, ?>) result;
+                if (read.get("mutationCount") instanceof Number) {
+                    mutationCount = ((Number) read.get("mutationCount")).longValue();
+                }
+                if (read.get("products") instanceof List) {
+                    for (Object item : (List<?>) read.get("products")) {
+                        products.add(ProductRecord.fromMap((Map<?, ?>) item));
+                    }
+                }
+            }
+            return new PageData<>(Collections.unmodifiableList(products), mutationCount);
+        });
+    }
+
+    // ========================
+    // SNAPSHOT CACHE METHODS
+    // ========================
+
+    /**
+     * Return data read from the page earlier, or read it now. Cached data is dropped when any page
+     * object clicks, types, navigates or runs a script in this browser, so repeated reads cost no
+     * round trip. -Dpage.cache=mutations also drops it when the DOM changed or another document was
+     * loaded, e.g. after acting on the page through the raw driver; this costs one small script call
+     * per read. -Dpage.cache=off disables caching.
+     * @param key Name of the data, unique within the page object
+     * @param loader Reads the data from the page, the result must not be modified afterwards
+     * @return Cached or freshly read data
+     */
+    protected <T> T snapshot(String key, Supplier<T> loader) {
+        return snapshot(key, trackMutations -> {
+            // Counted first, a change made while the data is read invalidates it on the next read
+            long mutationCount = trackMutations ? Math.max(0, getDomMutationCount()) : 0;
+            return new PageData<>(loader.get(), mutationCount);
+        });
+    }
+
+    /**
+     * Like {@link #snapshot(String, Supplier)} for loaders that read the DOM mutation count in the
+     * same script as the data, which saves the extra script call when the data is read
+     * @param key Name of the data, unique within the page object
+     * @param loader Reads the data, and with true also the mutation count (-1 if unknown)
+     * @return Cached or freshly read data
+     */
+    private <T> T snapshot(String key, Function<Boolean, PageData<T>> loader) {
+        String mode = System.getProperty(Constants.PAGE_CACHE_PROPERTY, Constants.PAGE_CACHE_ACTIONS);
+        if (Constants.PAGE_CACHE_OFF.equals(mode)) {
+            return loader.apply(false).value;
+        }
+
+        boolean trackMutations = Constants.PAGE_CACHE_MUTATIONS.equals(mode);
+        long actionCount = PageStateTracker.getActionCount(driver);
+        Snapshot cached = snapshots.get(key);
+        if (cached != null && cached.actionCount == actionCount
+                && (!trackMutations || (cached.mutationCount >= 0 && cached.mutationCount == getDomMutationCount()))) {
+            @SuppressWarnings("unchecked")
+            T value = (T) cached.value;
+            return value;
+        }
+
+        PageData<T> loaded = loader.apply(trackMutations);
+        snapshots.put(key, new Snapshot(loaded.value, actionCount, loaded.mutationCount));
+        return loaded.value;
+    }
+
+    /**
+     * Drop all data cached by this page object
+     */
+    public void invalidateSnapshots() {
+        snapshots.clear();
+    }
+
+    private long getDomMutationCount() {
+        Object count = ((JavascriptExecutor) PageStateTracker.unwrap(driver)).executeScript(DOM_MUTATION_COUNT_SCRIPT);
+        return count instanceof Number ? ((Number) count).longValue() : -1;
+    }
+
+    /**
+     * Data just read from the page with the DOM mutation count it was read at
+     */
+    private static class PageData<T> {
+        private final T value;
+        private final long mutationCount;
+
+        PageData(T value, long mutationCount) {
+            this.value = value;
+            this.mutationCount = mutationCount;
+        }
+    }
+
+    /**
+     * Data read from the page together with the browser state it was read in
+     */
+    private static class Snapshot {
+        private final Object value;
+        private final long actionCount;
+        private final long mutationCount;
+
+        Snapshot(Object value, long actionCount, long mutationCount) {
+            this.value = value;
+            this.actionCount = actionCount;
+            this.mutationCount = mutationCount;
+        }
+    }
+
+    // ========================
+    // DOM WAIT METHODS
+    // ========================
+
+    /**
+     * Wait until a JavaScript condition holds and the DOM has stopped changing
+     * @param conditionBody Body of a JavaScript function returning true when done, its arguments are available as args
+     * @param args Arguments passed to the condition
+     * @return true if the condition was met within the explicit wait timeout, false otherwise
+     */
+    public boolean waitForDomCondition(String conditionBody, Object... args) {
+        // Runs through the tracked driver: a page that was waited on has changed, so snapshots are dropped
+        Object result = ((JavascriptExecutor) driver).executeAsyncScript(
+                String.format(DOM_WAIT_SCRIPT, conditionBody),
+                Arrays.asList(args), Constants.DOM_QUIET_PERIOD_MILLIS,
+                Constants.EXPLICIT_WAIT * 1000L);
+        return Boolean.TRUE.equals(result);
+    }
+
+    /**
+     * Wait until the document is loaded and no DOM mutation happened for the quiet period
+     * @return true if the page settled within the explicit wait timeout, false otherwise
+     */
+    public boolean waitForDomToSettle() {
+        return waitForDomCondition("return document.readyState === 'complete';");
+    }
+
+    /**
+     * Wait until the number of elements matching a CSS selector reaches the expected count
+     * @param cssSelector CSS selector of the elements to count
+     * @param expectedCount Expected number of matching elements
+     * @return true if the count was reached within the explicit wait timeout, false otherwise
+     */
+    public boolean waitForElementCount(String cssSelector, int expectedCount) {
+        return waitForDomCondition("return document.querySelectorAll(args[0]).length === args[1];",
+                cssSelector, expectedCount);
+    }
 }
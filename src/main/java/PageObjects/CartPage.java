@@ -7,8 +7,8 @@ import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.By;
 import utilities.Constants;
+import java.util.Comparator;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -135,29 +135,31 @@ public class CartPage extends BasePage {
      * @return Total quantity as integer
      */
     public int getTotalQuantity() {
-        int totalQuantity = 0;
-        for (WebElement quantityElement : itemQuantities) {
-            try {
-                totalQuantity += Integer.parseInt(quantityElement.getText().trim());
-            } catch (NumberFormatException e) {
-                // If quantity is not a number, assume 1
-                totalQuantity += 1;
-            }
-        }
-        return totalQuantity;
+        // Quantities that are not a number count as 1
+        return getProducts().stream()
+                .mapToInt(ProductRecord::getQuantityValue)
+                .sum();
     }
 
     // ========================
     // CART ITEMS INFORMATION METHODS
     // ========================
 
+    /**
+     * Get name, description, price and quantity of all cart items in one call
+     * @return List of cart items in display order
+     */
+    public List<ProductRecord> getProducts() {
+        return readProducts(".cart_item");
+    }
+
     /**
      * Get list of all item names in cart
      * @return List of item names as Strings
      */
     public List<String> getItemNames() {
-        return itemNames.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getName)
                 .collect(Collectors.toList());
     }
 
@@ -166,8 +168,8 @@ public class CartPage extends BasePage {
      * @return List of item descriptions as Strings
      */
     public List<String> getItemDescriptions() {
-        return itemDescriptions.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getDescription)
                 .collect(Collectors.toList());
     }
 
@@ -176,8 +178,8 @@ public class CartPage extends BasePage {
      * @return List of item prices as Strings
      */
     public List<String> getItemPrices() {
-        return itemPrices.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getPrice)
                 .collect(Collectors.toList());
     }
 
@@ -186,8 +188,8 @@ public class CartPage extends BasePage {
      * @return List of item quantities as Strings
      */
     public List<String> getItemQuantities() {
-        return itemQuantities.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getQuantity)
                 .collect(Collectors.toList());
     }
 
@@ -196,16 +198,23 @@ public class CartPage extends BasePage {
      * @return List of item prices as doubles
      */
     public List<Double> getItemPricesAsDouble() {
-        List<Double> prices = new ArrayList<>();
-        for (String priceText : getItemPrices()) {
-            try {
-                double price = Double.parseDouble(priceText.replace("$", ""));
-                prices.add(price);
-            } catch (NumberFormatException e) {
-                prices.add(0.0);
+        return getProducts().stream()
+                .map(ProductRecord::getPriceValue)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Find a cart item by name
+     * @param itemName Name of the item
+     * @return Cart item, or null if item not found
+     */
+    private ProductRecord findProduct(String itemName) {
+        for (ProductRecord product : getProducts()) {
+            if (product.getName().equals(itemName)) {
+                return product;
             }
         }
-        return prices;
+        return null;
     }
 
     // ========================
@@ -218,15 +227,8 @@ public class CartPage extends BasePage {
      * @return Price as String, or null if item not found
      */
     public String getItemPrice(String itemName) {
-        List<String> names = getItemNames();
-        List<String> prices = getItemPrices();
-
-        for (int i = 0; i < names.size(); i++) {
-            if (names.get(i).equals(itemName)) {
-                return prices.get(i);
-            }
-        }
-        return null;
+        ProductRecord product = findProduct(itemName);
+        return product == null ? null : product.getPrice();
     }
 
     /**
@@ -235,15 +237,8 @@ public class CartPage extends BasePage {
      * @return Quantity as String, or null if item not found
      */
     public String getItemQuantity(String itemName) {
-        List<String> names = getItemNames();
-        List<String> quantities = getItemQuantities();
-
-        for (int i = 0; i < names.size(); i++) {
-            if (names.get(i).equals(itemName)) {
-                return quantities.get(i);
-            }
-        }
-        return null;
+        ProductRecord product = findProduct(itemName);
+        return product == null ? null : product.getQuantity();
     }
 
     /**
@@ -252,15 +247,8 @@ public class CartPage extends BasePage {
      * @return Description as String, or null if item not found
      */
     public String getItemDescription(String itemName) {
-        List<String> names = getItemNames();
-        List<String> descriptions = getItemDescriptions();
-
-        for (int i = 0; i < names.size(); i++) {
-            if (names.get(i).equals(itemName)) {
-                return descriptions.get(i);
-            }
-        }
-        return null;
+        ProductRecord product = findProduct(itemName);
+        return product == null ? null : product.getDescription();
     }
 
     // ========================
@@ -334,8 +322,8 @@ public class CartPage extends BasePage {
                 removeButtons.get(i).click();
                 itemsRemoved++;
 
-                // Wait briefly for the item to be removed from DOM
-                Thread.sleep(500);
+                // Wait for the item to be removed from DOM
+                waitForElementCount(".cart_item", i);
             } catch (Exception e) {
                 // Continue with next item if there's an issue
                 continue;
@@ -395,17 +383,10 @@ public class CartPage extends BasePage {
      */
     public double calculateTotalPrice() {
         double total = 0.0;
-        List<Double> prices = getItemPricesAsDouble();
-        List<String> quantities = getItemQuantities();
 
-        for (int i = 0; i < prices.size(); i++) {
-            try {
-                int quantity = Integer.parseInt(quantities.get(i).trim());
-                total += prices.get(i) * quantity;
-            } catch (NumberFormatException e) {
-                // If quantity is not a number, assume 1
-                total += prices.get(i);
-            }
+        // Quantities that are not a number count as 1
+        for (ProductRecord product : getProducts()) {
+            total += product.getPriceValue() * product.getQuantityValue();
         }
 
         return Math.round(total * 100.0) / 100.0; // Round to 2 decimal places
@@ -416,24 +397,10 @@ public class CartPage extends BasePage {
      * @return Item name with highest price, or null if cart is empty
      */
     public String getMostExpensiveItem() {
-        if (isCartEmpty()) {
-            return null;
-        }
-
-        List<String> names = getItemNames();
-        List<Double> prices = getItemPricesAsDouble();
-
-        double maxPrice = prices.get(0);
-        int maxIndex = 0;
-
-        for (int i = 1; i < prices.size(); i++) {
-            if (prices.get(i) > maxPrice) {
-                maxPrice = prices.get(i);
-                maxIndex = i;
-            }
-        }
-
-        return names.get(maxIndex);
+        return getProducts().stream()
+                .max(Comparator.comparingDouble(ProductRecord::getPriceValue))
+                .map(ProductRecord::getName)
+                .orElse(null);
     }
 
     /**
@@ -441,24 +408,10 @@ public class CartPage extends BasePage {
      * @return Item name with lowest price, or null if cart is empty
      */
     public String getCheapestItem() {
-        if (isCartEmpty()) {
-            return null;
-        }
-
-        List<String> names = getItemNames();
-        List<Double> prices = getItemPricesAsDouble();
-
-        double minPrice = prices.get(0);
-        int minIndex = 0;
-
-        for (int i = 1; i < prices.size(); i++) {
-            if (prices.get(i) < minPrice) {
-                minPrice = prices.get(i);
-                minIndex = i;
-            }
-        }
-
-        return names.get(minIndex);
+        return getProducts().stream()
+                .min(Comparator.comparingDouble(ProductRecord::getPriceValue))
+                .map(ProductRecord::getName)
+                .orElse(null);
     }
 
     // ========================
@@ -561,14 +514,10 @@ public class CartPage extends BasePage {
             summary.append("Total Price: $").append(String.format("%.2f", calculateTotalPrice())).append("\n");
             summary.append("\nItems in Cart:\n");
 
-            List<String> names = getItemNames();
-            List<String> prices = getItemPrices();
-            List<String> quantities = getItemQuantities();
-
-            for (int i = 0; i < names.size(); i++) {
-                summary.append("- ").append(names.get(i))
-                        .append(" (Qty: ").append(quantities.get(i))
-                        .append(", Price: ").append(prices.get(i)).append(")\n");
+            for (ProductRecord product : getProducts()) {
+                summary.append("- ").append(product.getName())
+                        .append(" (Qty: ").append(product.getQuantity())
+                        .append(", Price: ").append(product.getPrice()).append(")\n");
             }
 
         } catch (Exception e) {
@@ -605,8 +554,7 @@ public class CartPage extends BasePage {
      */
     public boolean waitForCartLoad(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(pageTitle));
             wait.until(ExpectedConditions.elementToBeClickable(continueShoppingButton));
@@ -626,8 +574,7 @@ public class CartPage extends BasePage {
      */
     public boolean waitForItemRemoval(String itemName, int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> !isItemInCart(itemName));
             return true;
@@ -643,8 +590,7 @@ public class CartPage extends BasePage {
      */
     public boolean waitForEmptyCart(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> isCartEmpty());
             return true;
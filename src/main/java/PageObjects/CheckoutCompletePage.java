@@ -510,8 +510,7 @@ public class CheckoutCompletePage extends BasePage {
      */
     public boolean waitForPageLoad(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(pageTitle));
             wait.until(ExpectedConditions.visibilityOf(successHeader));
@@ -532,8 +531,7 @@ public class CheckoutCompletePage extends BasePage {
      */
     public boolean waitForOrderCompletion(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> isOrderCompletionSuccessful());
             return true;
@@ -549,8 +547,7 @@ public class CheckoutCompletePage extends BasePage {
      */
     public boolean waitForAllElements(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> areAllEssentialElementsDisplayed());
             return true;
@@ -566,8 +563,7 @@ public class CheckoutCompletePage extends BasePage {
      */
     public boolean waitForSuccessMessage(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(successHeader));
             wait.until(ExpectedConditions.visibilityOf(successText));
@@ -584,8 +580,7 @@ public class CheckoutCompletePage extends BasePage {
      */
     public boolean waitForPonyImage(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(ponyExpressImage));
             return isPonyExpressImageDisplayed();
@@ -626,8 +626,7 @@ public class CheckoutStepOnePage extends BasePage {
      */
     public boolean waitForPageLoad(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(pageTitle));
             wait.until(ExpectedConditions.visibilityOf(firstNameField));
@@ -649,8 +648,7 @@ public class CheckoutStepOnePage extends BasePage {
      */
     public boolean waitForErrorMessage(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(errorMessage));
             return true;
@@ -666,8 +664,7 @@ public class CheckoutStepOnePage extends BasePage {
      */
     public boolean waitForErrorMessageToDisappear(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.invisibilityOf(errorMessage));
             return true;
@@ -689,8 +686,7 @@ public class CheckoutStepOnePage extends BasePage {
                                    String expectedPostalCode,
                                    int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> validateAllFormFields(expectedFirstName, expectedLastName, expectedPostalCode));
             return true;
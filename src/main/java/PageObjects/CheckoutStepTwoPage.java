@@ -6,7 +6,6 @@ import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import utilities.Constants;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -137,13 +136,21 @@ public class CheckoutStepTwoPage extends BasePage {
     // CART ITEMS INFORMATION
     // ========================
 
+    /**
+     * Get name, description, price and quantity of all items in one call
+     * @return List of items in display order
+     */
+    public List<ProductRecord> getProducts() {
+        return readProducts(".cart_item");
+    }
+
     /**
      * Get list of all item names in checkout overview
      * @return List of item names as Strings
      */
     public List<String> getItemNames() {
-        return itemNames.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getName)
                 .collect(Collectors.toList());
     }
 
@@ -152,8 +159,8 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return List of item descriptions as Strings
      */
     public List<String> getItemDescriptions() {
-        return itemDescriptions.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getDescription)
                 .collect(Collectors.toList());
     }
 
@@ -162,8 +169,8 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return List of item prices as Strings
      */
     public List<String> getItemPrices() {
-        return itemPrices.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getPrice)
                 .collect(Collectors.toList());
     }
 
@@ -172,8 +179,8 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return List of item quantities as Strings
      */
     public List<String> getItemQuantities() {
-        return itemQuantities.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getQuantity)
                 .collect(Collectors.toList());
     }
 
@@ -182,16 +189,9 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return List of item prices as doubles
      */
     public List<Double> getItemPricesAsDouble() {
-        List<Double> prices = new ArrayList<>();
-        for (String priceText : getItemPrices()) {
-            try {
-                double price = Double.parseDouble(priceText.replace("$", ""));
-                prices.add(price);
-            } catch (NumberFormatException e) {
-                prices.add(0.0);
-            }
-        }
-        return prices;
+        return getProducts().stream()
+                .map(ProductRecord::getPriceValue)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -207,16 +207,10 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return Total quantity as integer
      */
     public int getTotalItemQuantity() {
-        int totalQuantity = 0;
-        for (WebElement quantityElement : itemQuantities) {
-            try {
-                totalQuantity += Integer.parseInt(quantityElement.getText().trim());
-            } catch (NumberFormatException e) {
-                // If quantity is not a number, assume 1
-                totalQuantity += 1;
-            }
-        }
-        return totalQuantity;
+        // Quantities that are not a number count as 1
+        return getProducts().stream()
+                .mapToInt(ProductRecord::getQuantityValue)
+                .sum();
     }
 
     // ========================
@@ -252,14 +246,7 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return Subtotal amount as double
      */
     public double getSubtotalAmount() {
-        String subtotalText = getSubtotal();
-        try {
-            // Extract number from "Item total: $29.99"
-            String amountText = subtotalText.substring(subtotalText.lastIndexOf("$") + 1);
-            return Double.parseDouble(amountText);
-        } catch (Exception e) {
-            return 0.0;
-        }
+        return parseAmount(getSubtotal());
     }
 
     /**
@@ -267,14 +254,7 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return Tax amount as double
      */
     public double getTaxAmount() {
-        String taxText = getTax();
-        try {
-            // Extract number from "Tax: $2.40"
-            String amountText = taxText.substring(taxText.lastIndexOf("$") + 1);
-            return Double.parseDouble(amountText);
-        } catch (Exception e) {
-            return 0.0;
-        }
+        return parseAmount(getTax());
     }
 
     /**
@@ -282,11 +262,17 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return Total amount as double
      */
     public double getTotalAmount() {
-        String totalText = getTotal();
+        return parseAmount(getTotal());
+    }
+
+    /**
+     * Parse the amount of a summary label such as "Item total: $29.99"
+     * @param labelText Label text
+     * @return Amount after the last $, or 0.0 if there is none
+     */
+    public static double parseAmount(String labelText) {
         try {
-            // Extract number from "Total: $32.39"
-            String amountText = totalText.substring(totalText.lastIndexOf("$") + 1);
-            return Double.parseDouble(amountText);
+            return Double.parseDouble(labelText.substring(labelText.lastIndexOf("$") + 1));
         } catch (Exception e) {
             return 0.0;
         }
@@ -385,17 +371,10 @@ public class CheckoutStepTwoPage extends BasePage {
      */
     public double calculateExpectedSubtotal() {
         double expectedSubtotal = 0.0;
-        List<Double> prices = getItemPricesAsDouble();
-        List<String> quantities = getItemQuantities();
-
-        for (int i = 0; i < prices.size() && i < quantities.size(); i++) {
-            try {
-                int quantity = Integer.parseInt(quantities.get(i).trim());
-                expectedSubtotal += prices.get(i) * quantity;
-            } catch (NumberFormatException e) {
-                // If quantity is not a number, assume 1
-                expectedSubtotal += prices.get(i);
-            }
+
+        // Quantities that are not a number count as 1
+        for (ProductRecord product : getProducts()) {
+            expectedSubtotal += product.getPriceValue() * product.getQuantityValue();
         }
 
         return Math.round(expectedSubtotal * 100.0) / 100.0; // Round to 2 decimal places
@@ -476,12 +455,9 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return Quantity as String, or null if item not found
      */
     public String getItemQuantityByName(String itemName) {
-        List<String> names = getItemNames();
-        List<String> quantities = getItemQuantities();
-
-        for (int i = 0; i < names.size() && i < quantities.size(); i++) {
-            if (names.get(i).equals(itemName)) {
-                return quantities.get(i);
+        for (ProductRecord product : getProducts()) {
+            if (product.getName().equals(itemName)) {
+                return product.getQuantity();
             }
         }
         return null;
@@ -493,12 +469,9 @@ public class CheckoutStepTwoPage extends BasePage {
      * @return Price as String, or null if item not found
      */
     public String getItemPriceByName(String itemName) {
-        List<String> names = getItemNames();
-        List<String> prices = getItemPrices();
-
-        for (int i = 0; i < names.size() && i < prices.size(); i++) {
-            if (names.get(i).equals(itemName)) {
-                return prices.get(i);
+        for (ProductRecord product : getProducts()) {
+            if (product.getName().equals(itemName)) {
+                return product.getPrice();
             }
         }
         return null;
@@ -629,19 +602,11 @@ public class CheckoutStepTwoPage extends BasePage {
             overview.append("Total Quantity: ").append(getTotalItemQuantity()).append("\n");
             overview.append("\nItems in Order:\n");
 
-            List<String> names = getItemNames();
-            List<String> prices = getItemPrices();
-            List<String> quantities = getItemQuantities();
-
-            for (int i = 0; i < names.size(); i++) {
-                overview.append("- ").append(names.get(i));
-                if (i < prices.size()) {
-                    overview.append(" (Price: ").append(prices.get(i));
-                }
-                if (i < quantities.size()) {
-                    overview.append(", Qty: ").append(quantities.get(i));
-                }
-                overview.append(")\n");
+            for (ProductRecord product : getProducts()) {
+                overview.append("- ").append(product.getName())
+                        .append(" (Price: ").append(product.getPrice())
+                        .append(", Qty: ").append(product.getQuantity())
+                        .append(")\n");
             }
 
             overview.append("\n").append(getAllSummaryInformation());
@@ -669,8 +634,7 @@ public class CheckoutStepTwoPage extends BasePage {
      */
     public boolean waitForPageLoad(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(pageTitle));
             wait.until(ExpectedConditions.visibilityOf(summaryInfo));
@@ -693,8 +657,7 @@ public class CheckoutStepTwoPage extends BasePage {
      */
     public boolean waitForPriceCalculations(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> verifyAllPriceCalculations());
             return true;
@@ -19,6 +19,21 @@ import java.util.Comparator;
  */
 public class InventoryPage extends BasePage {
 
+    /** JavaScript condition: the product list is ordered according to the sort dropdown value */
+    private static final String SORTED_CONDITION =
+            "var order = document.querySelector('.product_sort_container').value;" +
+            "var byPrice = order === 'lohi' || order === 'hilo';" +
+            "var descending = order === 'za' || order === 'hilo';" +
+            "var keys = Array.prototype.map.call(document.querySelectorAll('.inventory_item'), function(item) {" +
+            "  return byPrice ? parseFloat(item.querySelector('.inventory_item_price').textContent.replace('$', ''))" +
+            "                 : item.querySelector('.inventory_item_name').textContent;" +
+            "});" +
+            "for (var i = 1; i < keys.length; i++) {" +
+            "  var cmp = keys[i - 1] < keys[i] ? -1 : (keys[i - 1] > keys[i] ? 1 : 0);" +
+            "  if (descending ? cmp < 0 : cmp > 0) { return false; }" +
+            "}" +
+            "return keys.length > 0;";
+
     // ========================
     // PAGE HEADER ELEMENTS
     // ========================
@@ -151,13 +166,21 @@ public class InventoryPage extends BasePage {
     // PRODUCT INFORMATION METHODS
     // ========================
 
+    /**
+     * Get name, description, price and cart button state of all products in one call
+     * @return List of products in display order
+     */
+    public List<ProductRecord> getProducts() {
+        return readProducts(".inventory_item");
+    }
+
     /**
      * Get list of all product names
      * @return List of product names as Strings
      */
     public List<String> getItemNames() {
-        return itemNames.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getName)
                 .collect(Collectors.toList());
     }
 
@@ -166,8 +189,8 @@ public class InventoryPage extends BasePage {
      * @return List of product descriptions as Strings
      */
     public List<String> getItemDescriptions() {
-        return itemDescriptions.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getDescription)
                 .collect(Collectors.toList());
     }
 
@@ -176,8 +199,8 @@ public class InventoryPage extends BasePage {
      * @return List of product prices as Strings
      */
     public List<String> getItemPrices() {
-        return itemPrices.stream()
-                .map(WebElement::getText)
+        return getProducts().stream()
+                .map(ProductRecord::getPrice)
                 .collect(Collectors.toList());
     }
 
@@ -186,16 +209,9 @@ public class InventoryPage extends BasePage {
      * @return List of product prices as doubles
      */
     public List<Double> getItemPricesAsDouble() {
-        List<Double> prices = new ArrayList<>();
-        for (String priceText : getItemPrices()) {
-            try {
-                double price = Double.parseDouble(priceText.replace("$", ""));
-                prices.add(price);
-            } catch (NumberFormatException e) {
-                prices.add(0.0);
-            }
-        }
-        return prices;
+        return getProducts().stream()
+                .map(ProductRecord::getPriceValue)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -216,12 +232,9 @@ public class InventoryPage extends BasePage {
      * @return Product price as String, or null if product not found
      */
     public String getItemPriceByName(String itemName) {
-        List<String> names = getItemNames();
-        List<String> prices = getItemPrices();
-
-        for (int i = 0; i < names.size(); i++) {
-            if (names.get(i).equals(itemName)) {
-                return prices.get(i);
+        for (ProductRecord product : getProducts()) {
+            if (product.getName().equals(itemName)) {
+                return product.getPrice();
             }
         }
         return null;
@@ -267,13 +280,12 @@ public class InventoryPage extends BasePage {
     }
 
     /**
-     * Wait for sorting animation/process to complete
+     * Wait until the rendered product order matches the selected sort option
      */
     private void waitForSortingToComplete() {
-        try {
-            Thread.sleep(1000); // Wait for sorting to complete
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (!waitForDomCondition(SORTED_CONDITION)) {
+            System.err.println("Products were not re-ordered to '" + getCurrentSortValue() + "' within "
+                    + Constants.EXPLICIT_WAIT + " seconds");
         }
     }
 
@@ -429,8 +441,8 @@ public class InventoryPage extends BasePage {
      * @return Number of items in cart
      */
     public int getItemsInCartCount() {
-        return (int) removeButtons.stream()
-                .filter(WebElement::isDisplayed)
+        return (int) getProducts().stream()
+                .filter(ProductRecord::isInCart)
                 .count();
     }
 
@@ -439,15 +451,10 @@ public class InventoryPage extends BasePage {
      * @return List of item names that are in cart
      */
     public List<String> getItemsInCart() {
-        List<String> itemsInCart = new ArrayList<>();
-        List<String> names = getItemNames();
-
-        for (int i = 0; i < names.size(); i++) {
-            if (i < removeButtons.size() && removeButtons.get(i).isDisplayed()) {
-                itemsInCart.add(names.get(i));
-            }
-        }
-        return itemsInCart;
+        return getProducts().stream()
+                .filter(ProductRecord::isInCart)
+                .map(ProductRecord::getName)
+                .collect(Collectors.toList());
     }
 
     // ========================
@@ -464,8 +471,11 @@ public class InventoryPage extends BasePage {
 
         for (int i = 0; i < names.size(); i++) {
             if (names.get(i).equals(itemName)) {
-                itemNames.get(i).click();
-                return new ProductDetailPage(driver);
+                WebElement name = itemNames.get(i);
+                return timeNavigation(() -> {
+                    name.click();
+                    return new ProductDetailPage(driver);
+                }, ProductDetailPage::isProductDetailPageLoaded);
             }
         }
         return null;
@@ -508,8 +518,21 @@ public class InventoryPage extends BasePage {
      * @return CartPage object
      */
     public CartPage goToCart() {
-        clickCart();
-        return new CartPage(driver);
+        return timeNavigation(() -> {
+            clickCart();
+            return new CartPage(driver);
+        }, CartPage::isCartPageLoaded);
+    }
+
+    /**
+     * Open the inventory page by its URL, e.g. to measure its load time
+     * @return InventoryPage object for the freshly loaded page
+     */
+    public InventoryPage open() {
+        return timeNavigation(() -> {
+            driver.get(Constants.INVENTORY_URL);
+            return new InventoryPage(driver);
+        }, InventoryPage::isInventoryPageLoaded);
     }
 
     // ========================
@@ -534,13 +557,11 @@ public class InventoryPage extends BasePage {
      * @return List of product names within price range
      */
     public List<String> findProductsByPriceRange(double minPrice, double maxPrice) {
-        List<String> names = getItemNames();
-        List<Double> prices = getItemPricesAsDouble();
         List<String> matchingProducts = new ArrayList<>();
 
-        for (int i = 0; i < names.size() && i < prices.size(); i++) {
-            if (prices.get(i) >= minPrice && prices.get(i) <= maxPrice) {
-                matchingProducts.add(names.get(i));
+        for (ProductRecord product : getProducts()) {
+            if (product.getPriceValue() >= minPrice && product.getPriceValue() <= maxPrice) {
+                matchingProducts.add(product.getName());
             }
         }
 
@@ -552,24 +573,10 @@ public class InventoryPage extends BasePage {
      * @return Name of the cheapest product
      */
     public String getCheapestProduct() {
-        List<String> names = getItemNames();
-        List<Double> prices = getItemPricesAsDouble();
-
-        if (names.isEmpty() || prices.isEmpty()) {
-            return null;
-        }
-
-        double minPrice = prices.get(0);
-        int minIndex = 0;
-
-        for (int i = 1; i < prices.size(); i++) {
-            if (prices.get(i) < minPrice) {
-                minPrice = prices.get(i);
-                minIndex = i;
-            }
-        }
-
-        return names.get(minIndex);
+        return getProducts().stream()
+                .min(Comparator.comparingDouble(ProductRecord::getPriceValue))
+                .map(ProductRecord::getName)
+                .orElse(null);
     }
 
     /**
@@ -577,24 +584,10 @@ public class InventoryPage extends BasePage {
      * @return Name of the most expensive product
      */
     public String getMostExpensiveProduct() {
-        List<String> names = getItemNames();
-        List<Double> prices = getItemPricesAsDouble();
-
-        if (names.isEmpty() || prices.isEmpty()) {
-            return null;
-        }
-
-        double maxPrice = prices.get(0);
-        int maxIndex = 0;
-
-        for (int i = 1; i < prices.size(); i++) {
-            if (prices.get(i) > maxPrice) {
-                maxPrice = prices.get(i);
-                maxIndex = i;
-            }
-        }
-
-        return names.get(maxIndex);
+        return getProducts().stream()
+                .max(Comparator.comparingDouble(ProductRecord::getPriceValue))
+                .map(ProductRecord::getName)
+                .orElse(null);
     }
 
     // ========================
@@ -729,13 +722,10 @@ public class InventoryPage extends BasePage {
             summary.append("Most Expensive Product: ").append(getMostExpensiveProduct()).append("\n");
             summary.append("\nProduct List:\n");
 
-            List<String> names = getItemNames();
-            List<String> prices = getItemPrices();
-
-            for (int i = 0; i < names.size() && i < prices.size(); i++) {
-                String inCart = isItemInCart(names.get(i)) ? " [IN CART]" : "";
-                summary.append("- ").append(names.get(i))
-                        .append(" (").append(prices.get(i)).append(")")
+            for (ProductRecord product : getProducts()) {
+                String inCart = product.isInCart() ? " [IN CART]" : "";
+                summary.append("- ").append(product.getName())
+                        .append(" (").append(product.getPrice()).append(")")
                         .append(inCart).append("\n");
             }
 
@@ -757,8 +747,7 @@ public class InventoryPage extends BasePage {
      */
     public boolean waitForInventoryPageLoad(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(pageTitle));
             wait.until(ExpectedConditions.elementToBeClickable(sortDropdown));
@@ -778,8 +767,7 @@ public class InventoryPage extends BasePage {
      */
     public boolean waitForCartBadgeUpdate(int expectedCount, int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(driver -> getCartItemCount() == expectedCount);
             return true;
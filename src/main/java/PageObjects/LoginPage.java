@@ -1,12 +1,38 @@
 package PageObjects;
 
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import utilities.Constants;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LoginPage extends BasePage {
 
+    /** Reads all localStorage entries of the current origin */
+    private static final String READ_LOCAL_STORAGE_SCRIPT =
+            "var items = {};" +
+            "for (var i = 0; i < window.localStorage.length; i++) {" +
+            "  var key = window.localStorage.key(i);" +
+            "  items[key] = window.localStorage.getItem(key);" +
+            "}" +
+            "return items;";
+
+    /** Writes the localStorage entries passed as arguments[0] */
+    private static final String WRITE_LOCAL_STORAGE_SCRIPT =
+            "var items = arguments[0];" +
+            "for (var key in items) { window.localStorage.setItem(key, items[key]); }";
+
+    // Sessions captured after a successful UI login, per user and password, shared by all threads
+    private static final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
     // Login form elements
     @FindBy(id = "user-name")
     private WebElement usernameField;
@@ -52,6 +78,90 @@ public class LoginPage extends BasePage {
         return new InventoryPage(driver);
     }
 
+    /**
+     * Log in using the mode selected with -Dlogin.mode (ui by default)
+     * @param username Username
+     * @param password Password
+     * @return InventoryPage object
+     */
+    public InventoryPage loginAs(String username, String password) {
+        if (Constants.LOGIN_MODE_FAST.equals(System.getProperty(Constants.LOGIN_MODE_PROPERTY, Constants.LOGIN_MODE_UI))) {
+            return fastLogin(username, password);
+        }
+        return login(username, password);
+    }
+
+    /**
+     * Log in by injecting the cookies and localStorage captured from an earlier UI login of the
+     * same user, then open the inventory page directly. The first login of a user, and any login
+     * whose captured session is expired or rejected, goes through the login form.
+     * @param username Username
+     * @param password Password
+     * @return InventoryPage object
+     */
+    public InventoryPage fastLogin(String username, String password) {
+        String key = username + "\n" + password;
+        SessionState session = sessions.get(key);
+        if (session != null && !session.isExpired()) {
+            InventoryPage inventoryPage = injectSession(session);
+            if (inventoryPage != null) {
+                return inventoryPage;
+            }
+            System.out.println("Captured session of " + username + " was rejected, logging in through the form");
+            sessions.remove(key);
+            driver.get(Constants.BASE_URL);
+        }
+
+        InventoryPage inventoryPage = login(username, password);
+        if (inventoryPage.isInventoryPageLoaded()) {
+            sessions.put(key, captureSession());
+        }
+        return inventoryPage;
+    }
+
+    private SessionState captureSession() {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> localStorage = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(READ_LOCAL_STORAGE_SCRIPT);
+        return new SessionState(driver.manage().getCookies(), localStorage == null ? new HashMap<>() : localStorage);
+    }
+
+    private InventoryPage injectSession(SessionState session) {
+        // Cookies can only be set for the site the browser is on
+        if (!driver.getCurrentUrl().startsWith(Constants.BASE_URL)) {
+            driver.get(Constants.FAST_LOGIN_BOOTSTRAP_URL);
+        }
+        for (Cookie cookie : session.cookies) {
+            driver.manage().addCookie(cookie);
+        }
+        if (!session.localStorage.isEmpty()) {
+            ((JavascriptExecutor) driver).executeScript(WRITE_LOCAL_STORAGE_SCRIPT, session.localStorage);
+        }
+        driver.get(Constants.INVENTORY_URL);
+
+        InventoryPage inventoryPage = new InventoryPage(driver);
+        return driver.getCurrentUrl().startsWith(Constants.INVENTORY_URL) && inventoryPage.isInventoryPageLoaded()
+                ? inventoryPage : null;
+    }
+
+    /**
+     * Cookies and localStorage of a logged in user
+     */
+    private static class SessionState {
+        private final Set<Cookie> cookies;
+        private final Map<String, Object> localStorage;
+
+        SessionState(Set<Cookie> cookies, Map<String, Object> localStorage) {
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+        }
+
+        boolean isExpired() {
+            // Leave the scenario a couple of minutes before the session cookie runs out
+            Date cutoff = new Date(System.currentTimeMillis() + 120_000);
+            return cookies.stream().anyMatch(cookie -> cookie.getExpiry() != null && cookie.getExpiry().before(cutoff));
+        }
+    }
+
     public String getErrorMessage() {
         return wait.until(ExpectedConditions.visibilityOf(errorMessage)).getText();
     }
@@ -0,0 +1,219 @@
+package PageObjects;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import utilities.Tracing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PageStateTracker wraps the WebDriver used by page objects so that every mutating
+ * action (click, sendKeys, clear, submit, navigation, script execution) bumps a per
+ * browser action counter. Page snapshot caches compare this counter to decide whether
+ * cached page data is still valid, without any extra round trip to the browser.
+ * With -Dtracing.enabled=true every command also runs in a {@link Tracing} span carrying the
+ * locator of the element it acts on.
+ */
+public class PageStateTracker {
+
+    /** Element methods that change page state */
+    private static final Set<String> MUTATING_ELEMENT_METHODS = new HashSet<>(Arrays.asList(
+            "click", "sendKeys", "clear", "submit"));
+
+    /** Driver methods that change page state */
+    private static final Set<String> MUTATING_DRIVER_METHODS = new HashSet<>(Arrays.asList(
+            "get", "navigate", "switchTo", "close", "executeScript", "executeAsyncScript", "perform", "resetInputState"));
+
+    private static final Map<WebDriver, AtomicLong> actionCounters = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Wrap a driver so that its actions are tracked; tracked drivers are returned unchanged
+     * @param driver Driver to wrap
+     * @return Tracked driver implementing the same interfaces as the given driver
+     */
+    public static WebDriver track(WebDriver driver) {
+        if (driver == null || isTracked(driver)) {
+            return driver;
+        }
+        return (WebDriver) Proxy.newProxyInstance(PageStateTracker.class.getClassLoader(),
+                interfacesOf(driver.getClass(), WrapsDriver.class),
+                new DriverHandler(driver));
+    }
+
+    /**
+     * Get the untracked driver behind a tracked one
+     * @param driver Tracked or untracked driver
+     * @return Untracked driver
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        return isTracked(driver) ? ((DriverHandler) Proxy.getInvocationHandler(driver)).driver : driver;
+    }
+
+    /**
+     * Get the number of mutating actions performed on a browser through page objects
+     * @param driver Tracked or untracked driver
+     * @return Action counter of the browser
+     */
+    public static long getActionCount(WebDriver driver) {
+        return counter(unwrap(driver)).get();
+    }
+
+    /**
+     * Mark all cached page data of a browser as stale, e.g. after acting on it outside page objects
+     * @param driver Tracked or untracked driver
+     */
+    public static void invalidate(WebDriver driver) {
+        counter(unwrap(driver)).incrementAndGet();
+    }
+
+    private static boolean isTracked(WebDriver driver) {
+        return Proxy.isProxyClass(driver.getClass()) && Proxy.getInvocationHandler(driver) instanceof DriverHandler;
+    }
+
+    private static AtomicLong counter(WebDriver driver) {
+        return actionCounters.computeIfAbsent(driver, key -> new AtomicLong());
+    }
+
+    private static Class<?>[] interfacesOf(Class<?> type, Class<?> wrapperInterface) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Class<?> candidate : current.getInterfaces()) {
+                if (Modifier.isPublic(candidate.getModifiers())) {
+                    interfaces.add(candidate);
+                }
+            }
+        }
+        interfaces.add(wrapperInterface);
+        return interfaces.toArray(new Class<?>[0]);
+    }
+
+    private static Object wrapResult(WebDriver driver, Object result, String locator) {
+        if (result instanceof WebElement) {
+            WebElement element = (WebElement) result;
+            return Proxy.newProxyInstance(PageStateTracker.class.getClassLoader(),
+                    interfacesOf(element.getClass(), WrapsElement.class),
+                    new ElementHandler(driver, element, locator));
+        }
+        if (result instanceof List) {
+            List<Object> wrapped = new ArrayList<>();
+            for (Object item : (List<?>) result) {
+                wrapped.add(wrapResult(driver, item, locator));
+            }
+            return wrapped;
+        }
+        return result;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object unwrapArgument(Object arg) {
+        if (arg instanceof WrapsElement && Proxy.isProxyClass(arg.getClass())
+                && Proxy.getInvocationHandler(arg) instanceof ElementHandler) {
+            return ((WrapsElement) arg).getWrappedElement();
+        }
+        return arg;
+    }
+
+    private static String locatorOf(String parentLocator, Object[] args) {
+        if (args == null || args.length != 1 || !(args[0] instanceof By)) {
+            return parentLocator;
+        }
+        return parentLocator == null ? args[0].toString() : parentLocator + " > " + args[0];
+    }
+
+    private static Object trace(String target, Object receiver, Method method, Object[] args, String locator) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return PageStateTracker.invoke(receiver, method, args);
+        }
+        return Tracing.command(target, method.getName(), locator, () -> PageStateTracker.invoke(receiver, method, args));
+    }
+
+    /**
+     * Forwards driver calls, counting mutating ones and wrapping returned elements
+     */
+    private static class DriverHandler implements InvocationHandler {
+        private final WebDriver driver;
+
+        DriverHandler(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getWrappedDriver") && method.getParameterCount() == 0) {
+                return driver;
+            }
+            if (method.getName().equals("equals") && args != null && args.length == 1) {
+                return driver.equals(args[0] instanceof WebDriver ? unwrap((WebDriver) args[0]) : args[0]);
+            }
+            if (MUTATING_DRIVER_METHODS.contains(method.getName())) {
+                counter(driver).incrementAndGet();
+            }
+            if (args != null && (method.getName().equals("executeScript") || method.getName().equals("executeAsyncScript"))) {
+                args = args.clone();
+                if (args.length > 1 && args[1] instanceof Object[]) {
+                    Object[] scriptArgs = ((Object[]) args[1]).clone();
+                    for (int i = 0; i < scriptArgs.length; i++) {
+                        scriptArgs[i] = unwrapArgument(scriptArgs[i]);
+                    }
+                    args[1] = scriptArgs;
+                }
+            }
+            String locator = locatorOf(null, args);
+            return wrapResult(driver, trace("WebDriver", driver, method, args, locator), locator);
+        }
+    }
+
+    /**
+     * Forwards element calls, counting mutating ones and wrapping returned elements
+     */
+    private static class ElementHandler implements InvocationHandler {
+        private final WebDriver driver;
+        private final WebElement element;
+        private final String locator;
+
+        ElementHandler(WebDriver driver, WebElement element, String locator) {
+            this.driver = driver;
+            this.element = element;
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getWrappedElement") && method.getParameterCount() == 0) {
+                return element;
+            }
+            if (method.getName().equals("equals") && args != null && args.length == 1) {
+                return element.equals(unwrapArgument(args[0]));
+            }
+            if (MUTATING_ELEMENT_METHODS.contains(method.getName())) {
+                counter(driver).incrementAndGet();
+            }
+            String childLocator = locatorOf(locator, args);
+            return wrapResult(driver, trace("WebElement", element, method, args, childLocator), childLocator);
+        }
+    }
+}
@@ -458,8 +458,7 @@ public class ProductDetailPage extends BasePage {
      */
     public boolean waitForPageLoad(int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             wait.until(ExpectedConditions.visibilityOf(productName));
             wait.until(ExpectedConditions.visibilityOf(productPrice));
@@ -480,8 +479,7 @@ public class ProductDetailPage extends BasePage {
      */
     public boolean waitForCartStateChange(boolean expectedInCart, int timeoutSeconds) {
         try {
-            wait = new org.openqa.selenium.support.ui.WebDriverWait(driver,
-                    java.time.Duration.ofSeconds(timeoutSeconds));
+            wait = createWait(java.time.Duration.ofSeconds(timeoutSeconds));
 
             if (expectedInCart) {
                 wait.until(ExpectedConditions.visibilityOf(removeButton));
@@ -0,0 +1,116 @@
+package PageObjects;
+
+import java.util.Map;
+
+/**
+ * ProductRecord holds the product information of one inventory or cart item as read
+ * from the page in a single JavaScript call (see {@link BasePage#readProducts(String)}).
+ * Fields missing on a page, e.g. the quantity on the inventory page, are null.
+ */
+public class ProductRecord {
+
+    private final String name;
+    private final String description;
+    private final String price;
+    private final String quantity;
+    private final String buttonId;
+    private final String buttonText;
+
+    public ProductRecord(String name, String description, String price, String quantity, String buttonId, String buttonText) {
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.buttonId = buttonId;
+        this.buttonText = buttonText;
+    }
+
+    /**
+     * Create a record from the map returned by the extraction script
+     * @param values Map with name, description, price, quantity, buttonId and buttonText
+     * @return ProductRecord
+     */
+    static ProductRecord fromMap(Map<?, ?> values) {
+        return new ProductRecord((String) values.get("name"), (String) values.get("description"),
+                (String) values.get("price"), (String) values.get("quantity"),
+                (String) values.get("buttonId"), (String) values.get("buttonText"));
+    }
+
+    /**
+     * Parse a displayed price such as "$29.99"
+     * @param priceText Price text
+     * @return Price as double, or 0.0 if the text is not a price
+     */
+    public static double parsePrice(String priceText) {
+        try {
+            return Double.parseDouble(priceText.replace("$", "").trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            return 0.0;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Get price as displayed
+     * @return Price text such as "$29.99"
+     */
+    public String getPrice() {
+        return price;
+    }
+
+    /**
+     * Get price as double value
+     * @return Price, or 0.0 if not parseable
+     */
+    public double getPriceValue() {
+        return parsePrice(price);
+    }
+
+    /**
+     * Get quantity as displayed
+     * @return Quantity text, or null on pages without quantities
+     */
+    public String getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Get quantity as integer value
+     * @return Quantity, or 1 if not a number
+     */
+    public int getQuantityValue() {
+        try {
+            return Integer.parseInt(quantity.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            return 1;
+        }
+    }
+
+    public String getButtonId() {
+        return buttonId;
+    }
+
+    public String getButtonText() {
+        return buttonText;
+    }
+
+    /**
+     * Check if the item is in the cart
+     * @return true if the item shows a remove button
+     */
+    public boolean isInCart() {
+        return buttonId != null && buttonId.startsWith("remove");
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + price + (quantity != null ? ", Qty: " + quantity : "") + ")";
+    }
+}
@@ -1,117 +1,124 @@
 package stepDefination;
 
-import ExtentListeners.ExtentManager;
 import ExtentListeners.ExtentTestManager;
-import com.aventstack.extentreports.Status;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import io.cucumber.java.hu.Ha;
 import io.restassured.response.Response;
+import org.HdrHistogram.Histogram;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import java.io.BufferedReader;
+import utilities.ApiClient;
+import utilities.Constants;
+import utilities.DriverFactory;
+import utilities.JsonStream;
+import utilities.ResourceBlocker;
+import utilities.ResponseCache;
+import utilities.ScenarioHistory;
+import utilities.TimingCollector;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.ProtocolException;
-import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ReqresUserService {
 
-    public static String BASE_URL = null;
     public static final String API_KEY = "reqres-free-v1";
-    public static int responseCode=-1;
     protected Scenario scenario;
-    static String scenarioName;
-    static int x = 0;
-    public static String response=null;
-    public static Integer code=null;
+    // Scenario state is kept per thread so scenarios can run in parallel
+    private static final ThreadLocal<String> baseUrl = new ThreadLocal<>();
+    private static final ThreadLocal<String> scenarioName = new ThreadLocal<>();
+    private static final AtomicInteger scenarioCounter = new AtomicInteger();
+    private static final ThreadLocal<String> response = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> code = new ThreadLocal<>();
+    private static final ThreadLocal<Long> scenarioStart = new ThreadLocal<>();
 
     public static Map sendPostRequestNameJob(String endPoint, String name, String job) {
         Map<String,String> resultMap= new HashMap<>();
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL(BASE_URL + endPoint);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setDoOutput(true);
-        } catch (ProtocolException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        connection.setRequestProperty("x-api-key", ReqresUserService.API_KEY);
         String jObject = String.format("{\"name\": \"%s\", \"job\": \"%s\"}", name, job);
         System.out.println(jObject);
-        // Write JSON input string to the request body
-        try (OutputStream os = connection.getOutputStream()) {
-            byte[] input = jObject.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-            // Read response
-            int code = connection.getResponseCode();
-            BufferedReader br = new BufferedReader(new InputStreamReader(connection.getInputStream(), "utf-8"));
-            StringBuilder status_response = new StringBuilder();
-            String responseLine = null;
-            while ((responseLine = br.readLine()) != null) {
-                status_response.append(responseLine.trim());
-            }
+        try {
+            HttpResponse<String> httpResponse = ApiClient.getInstance().send(postRequest(endPoint, jObject));
+            int code = httpResponse.statusCode();
+            String status_response = httpResponse.body().trim();
             resultMap.put("Response Code: " , String.valueOf(code));
-            resultMap.put("Response Body: " , status_response.toString());
+            resultMap.put("Response Body: " , status_response);
             setStatusCode(code);
-            setResponce(status_response.toString());
+            setResponce(status_response);
             ExtentTestManager.logPass("Response Code: " + code);
-            ExtentTestManager.logPass("Response Body: " + status_response.toString());
+            ExtentTestManager.logPass("Response Body: " + status_response);
 
         } catch (Exception e) {
             e.printStackTrace();
             ExtentTestManager.logFail(e.getMessage());
-        } finally {
-            if (connection != null) {
-                // Disconnect to release resources
-                connection.disconnect();
-            }
         }
         return resultMap;
     }
 
     @Before
-    public synchronized void  before(Scenario scenario) {
+    public void  before(Scenario scenario) {
+        scenarioStart.set(System.nanoTime());
         try {
             Thread.sleep(1000);
         } catch (InterruptedException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
-        x = x + 1;
+        int scenarioNo = scenarioCounter.incrementAndGet();
         this.scenario = scenario;
-        scenarioName = scenario.getName();
-        ExtentTestManager.startTest("Scenario No : " + x + " : " + scenario.getName());
-        ExtentTestManager.getTest().log(Status.INFO, "Scenario started : - " + scenario.getName());
+        scenarioName.set(scenario.getName());
+        ExtentTestManager.startTest("Scenario No : " + scenarioNo + " : " + scenario.getName());
+        ExtentTestManager.logInfo("Scenario started : - " + scenario.getName());
 
     }
 
     @After
     public void after(Scenario scenario) {
+        Long start = scenarioStart.get();
+        if (start != null && (scenario.getStatus() == io.cucumber.java.Status.PASSED || scenario.isFailed())) {
+            // Duration history drives longest-first scheduling of later runs
+            ScenarioHistory.record(ScenarioHistory.scenarioId(scenario.getUri(), scenario.getLine()),
+                    (System.nanoTime() - start) / 1_000_000, scenario.getStatus().name());
+        }
         if (scenario.isFailed()) {
             ExtentTestManager.logFail("Scenario Failed");
-         //   ExtentTestManager.addScreenShotsOnFailure();
+            if (DriverFactory.isDriverInitialized()) {
+                // Taken before the driver is closed below; API scenarios have no browser
+                try {
+                    ExtentTestManager.addScreenShotsOnFailure();
+                } catch (RuntimeException e) {
+                    System.err.println("Screenshot of failure not taken: " + e);
+                }
+            }
             ExtentTestManager.scenarioFail();
         } else {
             ExtentTestManager.scenarioPass();
         }
-        ExtentManager.getReporter().flush();
-
+        if (DriverFactory.isDriverInitialized()) {
+            DriverFactory.closeDriver();
+            ResourceBlocker.Stats resources = ResourceBlocker.takeStats();
+            if (resources != null) {
+                ExtentTestManager.logInfo(resources.toString());
+            }
+        }
+        ResponseCache.endScenario();
+        TimingCollector.endScenario();
+        ExtentTestManager.endTest();
+        scenarioName.remove();
+        baseUrl.remove();
+        response.remove();
+        code.remove();
+        scenarioStart.remove();
     }
 
     public static int getTotalNumberOfUsersIncludingAllPages(String endURL) {
@@ -129,10 +136,11 @@ public class ReqresUserService {
      */
     public static int getTotalUsersCount(String endURL) throws Exception {
         int totalUsersCount = 0;
-        int totalPages = getTotalPages(endURL);
-        for (int page = 1; page <= totalPages; page++) {
-            totalUsersCount += getUsersCountByPage(endURL+page);
-            ExtentTestManager.logInfo("Page : "+page+" | Users on page : "+getUsersCountByPage(endURL+page));
+        List<JsonStream.Result> pages = streamAllPages(endURL, JsonStream.select().count("data[*]"));
+        for (int page = 1; page <= pages.size(); page++) {
+            int usersOnPage = (int) pages.get(page - 1).getCount("data[*]");
+            totalUsersCount += usersOnPage;
+            ExtentTestManager.logInfo("Page : "+page+" | Users on page : "+usersOnPage);
         }
         ExtentTestManager.logInfo("Total User Count : "+totalUsersCount);
         return totalUsersCount;
@@ -142,19 +150,18 @@ public class ReqresUserService {
      * Fetches the total number of pages from the first page response.
      */
     public static int getTotalPages(String endPoint) throws Exception {
-        String response = sendGetRequest(endPoint);
-        JSONObject jsonResponse = new JSONObject(response);
-        ExtentTestManager.logInfo("Total pages : "+ jsonResponse.getInt("total_pages"));
-        return jsonResponse.getInt("total_pages");
+        int totalPages = streamGetRequest(endPoint, JsonStream.select("total_pages")).getInt("total_pages");
+        ExtentTestManager.logInfo("Total pages : "+ totalPages);
+        return totalPages;
     }
 
     /**
      * Gets the count of users on a specific page.
      */
     public static int getUsersCountByPage(String endPoint) throws Exception {
-        JSONArray usersArray= ReqresUserService.getUsersDetailsByPage(endPoint);
-        ExtentTestManager.logInfo("User count : "+ usersArray.length());
-        return usersArray.length();
+        int usersCount = (int) streamGetRequest(endPoint, JsonStream.select().count("data[*]")).getCount("data[*]");
+        ExtentTestManager.logInfo("User count : "+ usersCount);
+        return usersCount;
     }
 
     /**
@@ -172,79 +179,173 @@ public class ReqresUserService {
      * Gets the all users on a specific page.
      */
     public static JSONArray getAllUsersDetailsByPage(String endURL) throws Exception {
-        int totalPages = getTotalPages(endURL);
+        List<JSONObject> pages = getAllPages(endURL);
         JSONArray totalUsersArray = new JSONArray();
 
-        for (int page = 1; page <= totalPages; page++) {
-            JSONArray tempArray = getUsersDetailsByPage(endURL+page);
+        for (int page = 1; page <= pages.size(); page++) {
+            JSONArray tempArray = pages.get(page - 1).getJSONArray("data");
             for(int i=0; i<tempArray.length();i++ ) {
                 totalUsersArray.put(tempArray.get(i));
             }
-            ExtentTestManager.logInfo("Page : "+page+" | Users on page : "+getUsersCountByPage(endURL+page));
+            ExtentTestManager.logInfo("Page : "+page+" | Users on page : "+tempArray.length());
         }
         ExtentTestManager.logInfo("Total user count on all page : "+totalUsersArray);
         return totalUsersArray;
     }
 
+    /**
+     * Fetches every page of a paginated endpoint. Page 1 is fetched first to learn total_pages,
+     * then the remaining pages are fetched concurrently (-Dapi.pageParallelism at a time).
+     * Each page is requested once and the pages are returned in page order.
+     */
+    public static List<JSONObject> getAllPages(String endURL) throws Exception {
+        String firstPage = sendGetRequest(endURL + 1);
+        checkStatus(endURL + 1, getCode());
+        JSONObject firstPageJson = new JSONObject(firstPage);
+        int totalPages = firstPageJson.getInt("total_pages");
+        ExtentTestManager.logInfo("Total pages : "+ totalPages);
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int page = 2; page <= totalPages; page++) {
+            requests.add(getRequest(endURL + page));
+        }
+        List<HttpResponse<String>> responses = ApiClient.getInstance().sendAll(requests,
+                Integer.getInteger(Constants.API_PAGE_PARALLELISM_PROPERTY, Constants.API_PAGE_PARALLELISM));
+
+        List<JSONObject> pages = new ArrayList<>();
+        pages.add(firstPageJson);
+        for (int page = 2; page <= totalPages; page++) {
+            HttpResponse<String> httpResponse = responses.get(page - 2);
+            logGetResponse(endURL + page, httpResponse.statusCode());
+            String body = httpResponse.body().trim();
+            setStatusCode(httpResponse.statusCode());
+            setResponce(body);
+            // An error page from a rate limit or outage fails the step instead of the JSON parser
+            checkStatus(endURL + page, httpResponse.statusCode());
+            pages.add(new JSONObject(body));
+        }
+        return pages;
+    }
+
+    /**
+     * Streams every page of a paginated endpoint like {@link #getAllPages(String)}, reading only
+     * the fields selected on the JsonStream (total_pages is added to the selection).
+     */
+    public static List<JsonStream.Result> streamAllPages(String endURL, JsonStream selection) throws Exception {
+        JsonStream.Result firstPage = streamGetRequest(endURL + 1, selection.values("total_pages"));
+        int totalPages = firstPage.getInt("total_pages");
+        ExtentTestManager.logInfo("Total pages : "+ totalPages);
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int page = 2; page <= totalPages; page++) {
+            requests.add(getRequest(endURL + page));
+        }
+        // Pages are parsed as they arrive; the status is checked first so an error page is not parsed as JSON
+        List<PageRead> reads = ApiClient.getInstance().readAll(requests,
+                response -> new PageRead(response.statusCode(),
+                        response.statusCode() == HttpURLConnection.HTTP_OK ? selection.read(response.body()) : null),
+                Integer.getInteger(Constants.API_PAGE_PARALLELISM_PROPERTY, Constants.API_PAGE_PARALLELISM));
+
+        List<JsonStream.Result> pages = new ArrayList<>();
+        pages.add(firstPage);
+        for (int page = 2; page <= totalPages; page++) {
+            PageRead read = reads.get(page - 2);
+            logGetResponse(endURL + page, read.statusCode);
+            setStatusCode(read.statusCode);
+            checkStatus(endURL + page, read.statusCode);
+            pages.add(read.result);
+        }
+        return pages;
+    }
+
+    /**
+     * Sends a GET request to Reqres API and reads only the fields selected on the JsonStream
+     * while the body arrives. The body itself is not kept, so getResponse() is cleared.
+     * @throws IOException if the request fails or the response is not 200
+     */
+    public static JsonStream.Result streamGetRequest(String endPoint, JsonStream selection) throws IOException {
+        setStatusCode(-1);
+        setResponce(null);
+        HttpResponse<InputStream> httpResponse = ApiClient.getInstance().sendStreaming(getRequest(endPoint));
+        try (InputStream body = httpResponse.body()) {
+            logGetResponse(endPoint, httpResponse.statusCode());
+            setStatusCode(httpResponse.statusCode());
+            checkStatus(endPoint, httpResponse.statusCode());
+            return selection.read(body);
+        }
+    }
+
+    private static void checkStatus(String endPoint, int statusCode) throws IOException {
+        if (statusCode != HttpURLConnection.HTTP_OK) {
+            throw new IOException("GET " + endPoint + " returned " + statusCode);
+        }
+    }
+
+    /**
+     * Status and selected fields of one streamed page, read off the caller thread
+     */
+    private static class PageRead {
+        private final int statusCode;
+        private final JsonStream.Result result;
+
+        PageRead(int statusCode, JsonStream.Result result) {
+            this.statusCode = statusCode;
+            this.result = result;
+        }
+    }
+
     /**
      * Sends a GET request to Reqres API for a specific page and returns the response as String.
      */
     public static String sendGetRequest(String endPoint) {
-        String urlString = BASE_URL + endPoint;
-        StringBuilder responseBuilder = new StringBuilder();
-        code = -1;
+        String body = "";
+        int responseCode = -1;
+        setStatusCode(responseCode);
 
         try {
-            URL url = new URL(urlString);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("x-api-key", API_KEY);
-            responseCode = connection.getResponseCode();
-
-            String logMsg = String.format("GET request for page %s, Response Code: %d", endPoint, responseCode);
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                ExtentTestManager.logFail("GET request failed: " + logMsg);
-            } else {
-                ExtentTestManager.logPass("GET request passed: " + logMsg);
-            }
-
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                    responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream(),
-                    StandardCharsets.UTF_8
-            ))) {
-                String inputLine;
-                while ((inputLine = br.readLine()) != null) {
-                    responseBuilder.append(inputLine) ;
-                }
-            }
-        } catch (IOException e) {
+            long start = System.nanoTime();
+            HttpResponse<String> httpResponse = ApiClient.getInstance().send(getRequest(endPoint));
+            TimingCollector.record("GET " + endPoint, System.nanoTime() - start);
+            responseCode = httpResponse.statusCode();
+            logGetResponse(endPoint, responseCode);
+            body = httpResponse.body().trim();
+        } catch (IOException | IllegalArgumentException e) {
             ExtentTestManager.logFail("Exception in GET request for: " + endPoint + " - " + e.getMessage());
             e.printStackTrace();
         }
-        response = responseBuilder.toString().trim();
         setStatusCode(responseCode);
-        setResponce(response);
-        return response.equals("{}") ? "" : response;
+        setResponce(body);
+        return body.equals("{}") ? "" : body;
+    }
+
+    /**
+     * Sends the same GET request a number of times, one after the other and bypassing the
+     * response cache, and returns the response times kept under "GET endPoint" for the scenario.
+     */
+    public static Histogram timeGetRequests(String endPoint, int calls) throws IOException {
+        String name = "GET " + endPoint;
+        TimingCollector.reset(name);
+        HttpRequest request = HttpRequest.newBuilder(getRequest(endPoint), (header, value) -> true)
+                .header("Cache-Control", "no-cache")
+                .build();
+        int failedCalls = 0;
+        for (int call = 0; call < calls; call++) {
+            long start = System.nanoTime();
+            HttpResponse<String> httpResponse = ApiClient.getInstance().send(request);
+            TimingCollector.record(name, System.nanoTime() - start);
+            setStatusCode(httpResponse.statusCode());
+            if (httpResponse.statusCode() != HttpURLConnection.HTTP_OK) {
+                failedCalls++;
+            }
+        }
+        if (failedCalls > 0) {
+            ExtentTestManager.logFail(failedCalls + " of " + calls + " GET requests for " + endPoint + " failed");
+        }
+        return TimingCollector.getHistogram(name);
     }
 
     public static Map sendPostRequestEmailPassword(String endPoint, String email, String password){
         Map<String, String> responseMap = new HashMap<String, String>();
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL(BASE_URL + endPoint);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setDoOutput(true);
-        } catch (ProtocolException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        connection.setRequestProperty("x-api-key", ReqresUserService.API_KEY);
         String jObject = null;
         if (!email.isEmpty() && !password.isEmpty()) {
             jObject = String.format("{\"email\": \"%s\", \"password\": \"%s\"}", email, password);
@@ -254,31 +355,18 @@ public class ReqresUserService {
             jObject = String.format("\"password\": \"%s\"}", password);
         }
         System.out.println(jObject);
-        // Write JSON input string to the request body
-        try (OutputStream os = connection.getOutputStream()) {
-            byte[] input = jObject.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-            // Read response
-            Integer code = connection.getResponseCode();
-            BufferedReader br = null;
-            if (code >= 400) {
-                br = new BufferedReader(new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8));
-            } else {
-                br = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-            }
-            StringBuilder response = new StringBuilder();
-            String responseLine = null;
-            while ((responseLine = br.readLine()) != null) {
-                response.append(responseLine.trim());
-            }
+        try {
+            HttpResponse<String> httpResponse = ApiClient.getInstance().send(postRequest(endPoint, jObject));
+            Integer code = httpResponse.statusCode();
+            String response = httpResponse.body().trim();
 
             responseMap.put("Status Code", code.toString());
-            responseMap.put("Status Body", response.toString());
+            responseMap.put("Status Body", response);
 
-            setResponce(response.toString());
+            setResponce(response);
             setStatusCode(code);
             ExtentTestManager.logPass("Response Code: " + code);
-            ExtentTestManager.logPass("Response Body: " + response.toString());
+            ExtentTestManager.logPass("Response Body: " + response);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -287,20 +375,67 @@ public class ReqresUserService {
         return responseMap;
     }
 
+    /**
+     * Builds a GET request to Reqres API on the shared client.
+     */
+    private static HttpRequest getRequest(String endPoint) {
+        return ApiClient.getInstance().newRequest(getBaseUrl() + endPoint)
+                .header("x-api-key", API_KEY)
+                .GET()
+                .build();
+    }
+
+    private static void logGetResponse(String endPoint, int responseCode) {
+        String logMsg = String.format("GET request for page %s, Response Code: %d", endPoint, responseCode);
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            ExtentTestManager.logFail("GET request failed: " + logMsg);
+        } else {
+            ExtentTestManager.logPass("GET request passed: " + logMsg);
+        }
+    }
+
+    /**
+     * Builds a JSON POST request to Reqres API on the shared client.
+     */
+    private static HttpRequest postRequest(String endPoint, String json) {
+        return ApiClient.getInstance().newRequest(getBaseUrl() + endPoint)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .header("x-api-key", API_KEY)
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * Get the base URL of the reqres API set by the Background of the scenario on this thread
+     * @return Base URL, or null before the BaseURL step
+     */
+    public static String getBaseUrl() {
+        return baseUrl.get();
+    }
+
+    /**
+     * Set the base URL of the reqres API for the scenario on this thread
+     * @param url Base URL, e.g. https://reqres.in
+     */
+    public static void setBaseUrl(String url) {
+        baseUrl.set(url);
+    }
+
     public static String getResponse() {
-        return response;
+        return response.get();
     }
 
     public static Integer getCode() {
-        return code;
+        return code.get();
     }
 
     public static void setResponce(String response) {
-        ReqresUserService.response= response;
+        ReqresUserService.response.set(response);
     }
 
     public static void setStatusCode(int responseCode) {
-        ReqresUserService.code=responseCode;
+        ReqresUserService.code.set(responseCode);
     }
 
 }
@@ -8,17 +8,22 @@ import java.net.URL;
 import java.util.Map;
 import java.util.logging.Logger;
 
-import static stepDefination.ReqresUserService.BASE_URL;
+import static stepDefination.ReqresUserService.getBaseUrl;
 
 public class APIConnection {
     HttpURLConnection con = null;
     public static Logger log = Logger.getLogger("APIConnection");
 
 
+    /**
+     * Open a new connection to the API base URL
+     * @deprecated Opens a new connection per call; send requests through {@link ApiClient} instead
+     */
+    @Deprecated
     public HttpURLConnection getAPIConnection(String endPoint){
         try {
 
-            URL obj = new URL(BASE_URL);
+            URL obj = new URL(getBaseUrl());
             con = (HttpURLConnection) obj.openConnection();
 
             // Set request method to GET
@@ -0,0 +1,181 @@
+package utilities;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Wait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * AdaptiveWait polls a condition aggressively at first and backs off exponentially,
+ * so conditions that become true within a few milliseconds do not pay for a fixed
+ * 500 ms poll interval. Every wait is recorded in {@link WaitMetrics} under the page
+ * and method that waited, so timeouts and intervals can be tuned from data.
+ *
+ * The implicit wait of the session is set to zero while a wait polls, so element lookups of a
+ * condition fail fast instead of blocking inside the driver; the backoff then decides when to
+ * look again, and the recorded durations are the time until the condition held.
+ *
+ * Settings are read from system properties, first for the page and then globally:
+ * wait.&lt;Page&gt;.timeoutMillis, wait.timeoutMillis, and likewise initialPollMillis,
+ * maxPollMillis and backoff.
+ */
+public class AdaptiveWait implements Wait<WebDriver> {
+
+    // Set while a wait of this thread has the implicit wait switched off, so nested waits leave it alone
+    private static final ThreadLocal<Boolean> implicitWaitSuspended = new ThreadLocal<>();
+
+    private final WebDriver driver;
+    private final String name;
+    private final Duration timeout;
+    private final long initialPollMillis;
+    private final long maxPollMillis;
+    private final double backoff;
+
+    /**
+     * Create a wait with explicit settings
+     * @param driver WebDriver passed to the conditions
+     * @param name Name the waits are recorded under, usually the page class name
+     * @param timeout Maximum time to wait
+     * @param initialPollMillis First poll interval in milliseconds
+     * @param maxPollMillis Largest poll interval in milliseconds
+     * @param backoff Factor the poll interval grows by after every unsuccessful check
+     */
+    public AdaptiveWait(WebDriver driver, String name, Duration timeout, long initialPollMillis, long maxPollMillis, double backoff) {
+        this.driver = driver;
+        this.name = name;
+        this.timeout = timeout;
+        this.initialPollMillis = Math.max(1, initialPollMillis);
+        this.maxPollMillis = Math.max(this.initialPollMillis, maxPollMillis);
+        this.backoff = Math.max(1.0, backoff);
+    }
+
+    /**
+     * Create a wait for a page using the configured settings
+     * @param driver WebDriver passed to the conditions
+     * @param page Page class whose settings are used
+     * @return Wait with the configured timeout, or the explicit wait timeout
+     */
+    public static AdaptiveWait forPage(WebDriver driver, Class<?> page) {
+        long timeoutMillis = setting(page, "timeoutMillis", Constants.EXPLICIT_WAIT * 1000L);
+        return forPage(driver, page, Duration.ofMillis(timeoutMillis));
+    }
+
+    /**
+     * Create a wait for a page with the configured polling and the given timeout
+     * @param driver WebDriver passed to the conditions
+     * @param page Page class whose settings are used
+     * @param timeout Maximum time to wait
+     * @return Wait with the configured polling
+     */
+    public static AdaptiveWait forPage(WebDriver driver, Class<?> page, Duration timeout) {
+        return new AdaptiveWait(driver, page.getSimpleName(), timeout,
+                setting(page, "initialPollMillis", Constants.WAIT_INITIAL_POLL_MILLIS),
+                setting(page, "maxPollMillis", Constants.WAIT_MAX_POLL_MILLIS),
+                Double.parseDouble(setting(page, "backoff", String.valueOf(Constants.WAIT_BACKOFF_MULTIPLIER))));
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Repeatedly apply the condition until it returns a non-null, non-false value or the timeout expires.
+     * Like WebDriverWait, element lookup failures are ignored while waiting.
+     * @param isTrue Condition to wait for
+     * @return The value returned by the condition
+     */
+    @Override
+    public <T> T until(Function<? super WebDriver, T> isTrue) {
+        String waitName = name + "." + callerMethod();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        boolean suspended = suspendImplicitWait();
+        try {
+            return poll(isTrue, waitName, start, deadline);
+        } finally {
+            if (suspended) {
+                restoreImplicitWait();
+            }
+        }
+    }
+
+    private <T> T poll(Function<? super WebDriver, T> isTrue, String waitName, long start, long deadline) {
+        long pollMillis = initialPollMillis;
+        int polls = 0;
+        RuntimeException lastException = null;
+
+        while (true) {
+            polls++;
+            try {
+                T value = isTrue.apply(driver);
+                if (value != null && (Boolean.class != value.getClass() || Boolean.TRUE.equals(value))) {
+                    WaitMetrics.record(waitName, System.nanoTime() - start, polls, false);
+                    return value;
+                }
+                lastException = null;
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                WaitMetrics.record(waitName, System.nanoTime() - start, polls, true);
+                throw new TimeoutException(String.format("Expected condition failed: waiting for %s (tried for %d ms, %d polls)",
+                        isTrue, timeout.toMillis(), polls), lastException);
+            }
+
+            try {
+                Thread.sleep(Math.min(pollMillis, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException(e);
+            }
+            pollMillis = Math.min(maxPollMillis, (long) Math.ceil(pollMillis * backoff));
+        }
+    }
+
+    private boolean suspendImplicitWait() {
+        if (implicitWaitSuspended.get() != null) {
+            return false;
+        }
+        try {
+            driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        } catch (RuntimeException e) {
+            // Drivers without timeouts, e.g. test doubles, are polled as they are
+            return false;
+        }
+        implicitWaitSuspended.set(Boolean.TRUE);
+        return true;
+    }
+
+    private void restoreImplicitWait() {
+        implicitWaitSuspended.remove();
+        try {
+            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(Constants.IMPLICIT_WAIT));
+        } catch (RuntimeException e) {
+            System.err.println("Could not restore the implicit wait after waiting in " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static String callerMethod() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().equals(AdaptiveWait.class.getName()))
+                .findFirst()
+                .map(StackWalker.StackFrame::getMethodName)
+                .orElse("unknown"));
+    }
+
+    private static long setting(Class<?> page, String key, long defaultValue) {
+        return Long.parseLong(setting(page, key, String.valueOf(defaultValue)));
+    }
+
+    private static String setting(Class<?> page, String key, String defaultValue) {
+        String global = System.getProperty(Constants.WAIT_PROPERTY_PREFIX + key, defaultValue);
+        return System.getProperty(Constants.WAIT_PROPERTY_PREFIX + page.getSimpleName() + "." + key, global);
+    }
+}
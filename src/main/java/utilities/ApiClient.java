@@ -0,0 +1,449 @@
+package utilities;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * ApiClient is the shared HTTP client of the framework. All API calls go through one
+ * java.net.http.HttpClient, so TCP/TLS connections are kept alive and reused between
+ * requests and scenarios, and HTTP/2 is negotiated where the server supports it (one
+ * multiplexed connection per host). The number of requests in flight per route
+ * (scheme, host and port) is bounded, which also bounds the HTTP/1.1 connections
+ * opened to that route. Requests sent with sendAsync never block the caller; on Java 21+
+ * responses are handled on virtual threads.
+ */
+public class ApiClient {
+
+    private static volatile ApiClient instance;
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final ExecutorService asyncExecutor;
+    private final Map<String, RouteLimiter> routePermits = new ConcurrentHashMap<>();
+
+    private ApiClient() {
+        // Read by the JDK client when its connection pool is created, so it must be set before the first client
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout",
+                    String.valueOf(Long.getLong(Constants.API_KEEP_ALIVE_SECONDS_PROPERTY, Constants.API_KEEP_ALIVE_SECONDS)));
+        }
+        boolean http2 = Boolean.parseBoolean(System.getProperty(Constants.API_HTTP2_PROPERTY, "true"));
+        this.asyncExecutor = VirtualThreads.newThreadPerTaskExecutor("api-client");
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(Long.getLong(Constants.API_CONNECT_TIMEOUT_PROPERTY, Constants.API_CONNECT_TIMEOUT_MILLIS)))
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (VirtualThreads.isAvailable()) {
+            // Response handling runs on virtual threads instead of the client's platform thread pool
+            builder.executor(asyncExecutor);
+        }
+        this.httpClient = builder.build();
+        this.requestTimeout = Duration.ofMillis(Long.getLong(Constants.API_REQUEST_TIMEOUT_PROPERTY, Constants.API_REQUEST_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * Get the shared client
+     * @return ApiClient
+     */
+    public static ApiClient getInstance() {
+        if (instance == null) {
+            synchronized (ApiClient.class) {
+                if (instance == null) {
+                    instance = new ApiClient();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start a request with the configured request timeout
+     * @param url Absolute URL
+     * @return Request builder
+     */
+    public HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout);
+    }
+
+    /**
+     * Send a request and read the body as string. GET requests are served from the
+     * {@link ResponseCache} when possible.
+     * @param request Request to send
+     * @return Response
+     * @throws IOException if the request fails or is interrupted
+     */
+    public HttpResponse<String> send(HttpRequest request) throws IOException {
+        return await(sendAsync(request), request.method() + " " + request.uri());
+    }
+
+    /**
+     * Send a request without waiting for the response and read the body as string.
+     * GET requests are served from the {@link ResponseCache} when possible.
+     * @param request Request to send
+     * @return Future completing with the response
+     */
+    public CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return ResponseCache.send(request, toSend -> sendAsync(toSend, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    /**
+     * Send a request, waiting for a free slot of its route first
+     * @param request Request to send
+     * @param bodyHandler Handler reading the response body
+     * @return Response
+     * @throws IOException if the request fails or is interrupted
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        RouteLimiter permits = permitsFor(request.uri());
+        try {
+            permits.acquireBlocking();
+            Runnable release = releaseOnce(permits);
+            boolean sent = false;
+            Span span = Tracing.startHttp(request, Context.current());
+            try {
+                long start = System.nanoTime();
+                HttpResponse<T> response = httpClient.send(request, holdingSlot(bodyHandler, release));
+                LatencyRecorder.record(LatencyRecorder.endpointOf(request), System.nanoTime() - start);
+                Tracing.endHttp(span, response.statusCode(), null);
+                sent = true;
+                return response;
+            } catch (IOException | RuntimeException e) {
+                Tracing.endHttp(span, -1, e);
+                throw e;
+            } finally {
+                // After a response the slot is released by its body, see holdingSlot
+                if (!sent) {
+                    release.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending " + request.method() + " " + request.uri());
+        }
+    }
+
+    /**
+     * Send a request without waiting for the response. When the route is at its limit the
+     * request is queued and sent once an in-flight request of the route frees its slot, so no
+     * thread waits for it; the slot is released when the response body is done with.
+     * @param request Request to send
+     * @param bodyHandler Handler reading the response body
+     * @return Future completing with the response
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        RouteLimiter permits = permitsFor(request.uri());
+        // Queued requests are sent from another thread, their spans keep the caller's parent
+        Context parent = Context.current();
+        return permits.acquire().thenCompose(ignored -> sendWithPermit(request, bodyHandler, permits, parent));
+    }
+
+    /**
+     * Send a request and hand out the body as stream, e.g. for {@link JsonStream}.
+     * Streamed responses are not cached. The slot of the route stays taken until the body
+     * has been read to the end or closed.
+     * @param request Request to send
+     * @return Response whose body must be read or closed by the caller
+     * @throws IOException if the request fails or is interrupted
+     */
+    public HttpResponse<InputStream> sendStreaming(HttpRequest request) throws IOException {
+        return send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Send requests concurrently, at most parallelism of them at a time. GET requests are
+     * served from the {@link ResponseCache} when possible.
+     * @param requests Requests to send
+     * @param parallelism Maximum number of requests in flight
+     * @return Responses in the order of the requests
+     * @throws IOException if any request fails or the caller is interrupted
+     */
+    public List<HttpResponse<String>> sendAll(List<HttpRequest> requests, int parallelism) throws IOException {
+        return sendEach(requests, this::sendAsync, parallelism);
+    }
+
+    /**
+     * Send requests concurrently, at most parallelism of them at a time, bypassing the cache
+     * @param requests Requests to send
+     * @param bodyHandler Handler reading the response bodies
+     * @param parallelism Maximum number of requests in flight
+     * @return Responses in the order of the requests
+     * @throws IOException if any request fails or the caller is interrupted
+     */
+    public <T> List<HttpResponse<T>> sendAll(List<HttpRequest> requests, HttpResponse.BodyHandler<T> bodyHandler,
+                                             int parallelism) throws IOException {
+        return sendEach(requests, request -> sendAsync(request, bodyHandler), parallelism);
+    }
+
+    /**
+     * Send requests concurrently and read each response body as a stream while it arrives, at most
+     * parallelism of them at a time. A slot is only freed once its body has been read and closed,
+     * so no more than parallelism bodies are open at once. Bodies are closed even when a reader fails.
+     * @param requests Requests to send, bypassing the cache
+     * @param reader Reads one response on a background thread; must not touch per thread scenario state
+     * @param parallelism Maximum number of requests in flight or being read
+     * @return Results of the reader in the order of the requests
+     * @throws IOException if any request or reader fails, or the caller is interrupted
+     */
+    public <R> List<R> readAll(List<HttpRequest> requests, ResponseReader<R> reader, int parallelism) throws IOException {
+        return sendEach(requests, request -> sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(response -> {
+                    try (InputStream body = response.body()) {
+                        return reader.read(response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, asyncExecutor), parallelism);
+    }
+
+    /**
+     * Reads a streamed response, see {@link #readAll(List, ResponseReader, int)}
+     */
+    @FunctionalInterface
+    public interface ResponseReader<R> {
+        R read(HttpResponse<InputStream> response) throws IOException;
+    }
+
+    private <T> List<T> sendEach(List<HttpRequest> requests,
+                                Function<HttpRequest, CompletableFuture<T>> sender,
+                                int parallelism) throws IOException {
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        try {
+            for (HttpRequest request : requests) {
+                slots.acquire();
+                futures.add(sender.apply(request).whenComplete((response, error) -> slots.release()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending " + requests.size() + " requests");
+        }
+        List<T> responses = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            responses.add(await(futures.get(i), requests.get(i).method() + " " + requests.get(i).uri()));
+        }
+        return responses;
+    }
+
+    /**
+     * Get the maximum number of requests in flight to a route
+     * @param route Route as scheme://host:port
+     * @return Limit from -Dapi.maxConnectionsPerRoute.&lt;host&gt;, else -Dapi.maxConnectionsPerRoute
+     */
+    public int getRouteLimit(String route) {
+        String host = URI.create(route).getHost();
+        Integer limit = Integer.getInteger(Constants.API_MAX_CONNECTIONS_PER_ROUTE_PROPERTY + "." + host);
+        if (limit == null) {
+            limit = Integer.getInteger(Constants.API_MAX_CONNECTIONS_PER_ROUTE_PROPERTY, Constants.API_MAX_CONNECTIONS_PER_ROUTE);
+        }
+        return Math.max(1, limit);
+    }
+
+    /**
+     * Get the route of a URI
+     * @param uri Request URI
+     * @return Route as scheme://host:port
+     */
+    public static String routeOf(URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + ":" + port;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendWithPermit(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                                 RouteLimiter permits, Context parent) {
+        long start = System.nanoTime();
+        Span span = Tracing.startHttp(request, parent);
+        Runnable release = releaseOnce(permits);
+        try {
+            return httpClient.sendAsync(request, holdingSlot(bodyHandler, release)).whenComplete((response, error) -> {
+                if (error != null) {
+                    release.run();
+                }
+                if (response != null) {
+                    LatencyRecorder.record(LatencyRecorder.endpointOf(request), System.nanoTime() - start);
+                }
+                Tracing.endHttp(span, response != null ? response.statusCode() : -1, error);
+            });
+        } catch (RuntimeException e) {
+            release.run();
+            Tracing.endHttp(span, -1, e);
+            throw e;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future, String description) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending " + description);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static Runnable releaseOnce(RouteLimiter permits) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Wrap a body handler so the slot of the route is released when the body has been received,
+     * failed or was abandoned, rather than when the headers arrive. For string bodies that is when
+     * the response completes; a streamed body holds the slot until it has been read or closed.
+     */
+    private static <T> HttpResponse.BodyHandler<T> holdingSlot(HttpResponse.BodyHandler<T> bodyHandler, Runnable release) {
+        return responseInfo -> new SlotReleasingSubscriber<>(bodyHandler.apply(responseInfo), release);
+    }
+
+    private RouteLimiter permitsFor(URI uri) {
+        return routePermits.computeIfAbsent(routeOf(uri), route -> new RouteLimiter(getRouteLimit(route)));
+    }
+
+    /**
+     * Fair limit of requests in flight to one route. Waiters are futures completed by the release
+     * of an earlier request, so a queued asynchronous send does not hold a thread while it waits.
+     */
+    private static class RouteLimiter {
+        private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int available;
+
+        RouteLimiter(int limit) {
+            this.available = limit;
+        }
+
+        CompletableFuture<Void> acquire() {
+            synchronized (this) {
+                // Queued requests are not overtaken by new ones
+                if (available > 0 && waiters.isEmpty()) {
+                    available--;
+                    return CompletableFuture.completedFuture(null);
+                }
+                CompletableFuture<Void> waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+                return waiter;
+            }
+        }
+
+        void acquireBlocking() throws InterruptedException {
+            CompletableFuture<Void> waiter = acquire();
+            try {
+                waiter.get();
+            } catch (InterruptedException e) {
+                // Granted in the meantime, hand the slot on
+                if (!waiter.cancel(false)) {
+                    release();
+                }
+                throw e;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        void release() {
+            while (true) {
+                CompletableFuture<Void> next;
+                synchronized (this) {
+                    next = waiters.poll();
+                    if (next == null) {
+                        available++;
+                        return;
+                    }
+                }
+                // Sends the queued request on this thread; a cancelled waiter passes the slot on
+                if (next.complete(null)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the body through and releases the slot of the route once the body is done with
+     */
+    private static class SlotReleasingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final Runnable release;
+
+        SlotReleasingSubscriber(HttpResponse.BodySubscriber<T> delegate, Runnable release) {
+            this.delegate = delegate;
+            this.release = release;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    // A closed input stream cancels the rest of the body
+                    release.run();
+                    subscription.cancel();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            release.run();
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            release.run();
+            delegate.onComplete();
+        }
+    }
+}
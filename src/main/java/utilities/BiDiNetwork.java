@@ -0,0 +1,120 @@
+package utilities;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.network.AddInterceptParameters;
+import org.openqa.selenium.bidi.network.BeforeRequestSent;
+import org.openqa.selenium.bidi.network.ContinueRequestParameters;
+import org.openqa.selenium.bidi.network.InterceptPhase;
+import org.openqa.selenium.bidi.network.ResponseDetails;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * BiDiNetwork shares one WebDriver BiDi network module and request intercept per browser between
+ * {@link ResourceBlocker} and {@link TrafficArchive}, so browsers without the DevTools protocol
+ * (Firefox) can be served by both. BiDi allows one decision per intercepted request, so listeners
+ * are asked in the order they were added and the first to fail or answer the request wins;
+ * requests nobody answers are continued to the network. Firefox needs the webSocketUrl capability,
+ * which DriverFactory sets.
+ */
+class BiDiNetwork {
+
+    /**
+     * Gets the requests and responses of one browser
+     */
+    interface Listener {
+
+        /**
+         * Look at a request paused before it is sent
+         * @param network Network module of the browser
+         * @param request Paused request
+         * @return true when the listener failed or answered the request, false to pass it on
+         */
+        boolean beforeRequest(Network network, BeforeRequestSent request);
+
+        /**
+         * Look at a response received in full, including ones of requests that were not paused
+         * @param response Response
+         */
+        default void responseCompleted(ResponseDetails response) {
+        }
+    }
+
+    private static final Map<WebDriver, BiDiNetwork> networks = new ConcurrentHashMap<>();
+
+    private final Network network;
+    private final String interceptId;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private BiDiNetwork(WebDriver webDriver) {
+        this.network = new Network(webDriver);
+        network.onBeforeRequestSent(this::beforeRequestSent);
+        network.onResponseCompleted(response -> {
+            for (Listener listener : listeners) {
+                listener.responseCompleted(response);
+            }
+        });
+        this.interceptId = network.addIntercept(new AddInterceptParameters(InterceptPhase.BEFORE_REQUEST_SENT));
+    }
+
+    /**
+     * Check whether a browser has a BiDi connection
+     * @param webDriver Browser
+     * @return true for sessions started with the webSocketUrl capability
+     */
+    static boolean isAvailable(WebDriver webDriver) {
+        return webDriver instanceof HasBiDi && ((HasBiDi) webDriver).maybeGetBiDi().isPresent();
+    }
+
+    /**
+     * Start passing the traffic of a browser to a listener, intercepting its requests from now on
+     * @param webDriver Browser with a BiDi connection
+     * @param listener Listener
+     */
+    static void add(WebDriver webDriver, Listener listener) {
+        networks.computeIfAbsent(webDriver, BiDiNetwork::new).listeners.add(listener);
+    }
+
+    /**
+     * Stop passing traffic to a listener. Requests stop being intercepted with the last listener.
+     * @param webDriver Browser
+     * @param listener Listener added before
+     */
+    static void remove(WebDriver webDriver, Listener listener) {
+        networks.computeIfPresent(webDriver, (key, bidi) -> {
+            bidi.listeners.remove(listener);
+            if (!bidi.listeners.isEmpty()) {
+                return bidi;
+            }
+            try {
+                bidi.network.removeIntercept(bidi.interceptId);
+                bidi.network.close();
+            } catch (RuntimeException e) {
+                System.err.println("Could not stop BiDi interception: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    private void beforeRequestSent(BeforeRequestSent request) {
+        if (!request.isBlocked() || !request.getIntercepts().contains(interceptId)) {
+            return;
+        }
+        try {
+            for (Listener listener : listeners) {
+                if (listener.beforeRequest(network, request)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("BiDi listener skipped " + request.getRequest().getUrl() + ": " + e.getMessage());
+        }
+        // A paused request nobody answered would hang the page
+        network.continueRequest(new ContinueRequestParameters(request.getRequest().getRequestId()));
+    }
+}
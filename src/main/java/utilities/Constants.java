@@ -230,6 +230,43 @@ public class Constants {
     /** Long wait timeout in seconds */
     public static final int LONG_WAIT = 20;
 
+    /** Time in milliseconds the DOM must stay unchanged before it is considered settled */
+    public static final int DOM_QUIET_PERIOD_MILLIS = 50;
+
+    /** System property selecting how page snapshot caches are validated: off, actions or mutations */
+    public static final String PAGE_CACHE_PROPERTY = "page.cache";
+
+    /** Page snapshot caching disabled */
+    public static final String PAGE_CACHE_OFF = "off";
+
+    /** Page snapshots are only dropped when a page object acts on the browser (default, no round trip per cached read) */
+    public static final String PAGE_CACHE_ACTIONS = "actions";
+
+    /** Page snapshots are also dropped when the DOM changed (opt-in for flows using the raw driver, one small script call per read) */
+    public static final String PAGE_CACHE_MUTATIONS = "mutations";
+
+    // ========================
+    // ADAPTIVE WAIT CONSTANTS
+    // ========================
+
+    /** Prefix of the wait system properties, e.g. wait.timeoutMillis or wait.CartPage.maxPollMillis for one page */
+    public static final String WAIT_PROPERTY_PREFIX = "wait.";
+
+    /** System property for the file receiving wait metrics when the JVM exits */
+    public static final String WAIT_METRICS_FILE_PROPERTY = "wait.metrics.file";
+
+    /** Default wait metrics file */
+    public static final String WAIT_METRICS_FILE = "target/wait-metrics.csv";
+
+    /** First poll interval of an adaptive wait in milliseconds */
+    public static final long WAIT_INITIAL_POLL_MILLIS = 10;
+
+    /** Largest poll interval of an adaptive wait in milliseconds */
+    public static final long WAIT_MAX_POLL_MILLIS = 500;
+
+    /** Factor the poll interval grows by after every unsuccessful check */
+    public static final double WAIT_BACKOFF_MULTIPLIER = 2.0;
+
     // ========================
     // BROWSER CONSTANTS
     // ========================
@@ -246,6 +283,271 @@ public class Constants {
     /** Safari browser identifier */
     public static final String SAFARI = "safari";
 
+    // ========================
+    // DRIVER POOL CONSTANTS
+    // ========================
+
+    /** System property to enable/disable driver pooling */
+    public static final String DRIVER_POOL_ENABLED_PROPERTY = "driver.pool.enabled";
+
+    /** System property for number of idle sessions kept per browser type */
+    public static final String DRIVER_POOL_SIZE_PROPERTY = "driver.pool.size";
+
+    /** System property for number of scenarios one session may serve */
+    public static final String DRIVER_POOL_MAX_REUSE_PROPERTY = "driver.pool.maxReuse";
+
+    /** System property to launch the full pool on first use of a browser type */
+    public static final String DRIVER_POOL_PREWARM_PROPERTY = "driver.pool.prewarm";
+
+    /** System property to pre-launch the next session and quit old ones in the background */
+    public static final String DRIVER_ASYNC_LIFECYCLE_PROPERTY = "driver.lifecycle.async";
+
+    /** Default number of idle sessions kept per browser type */
+    public static final int DRIVER_POOL_SIZE = 2;
+
+    /** Default number of scenarios one session may serve before it is retired */
+    public static final int DRIVER_POOL_MAX_REUSE = 25;
+
+    /** System property for the time a borrow waits for a session launched in the background */
+    public static final String DRIVER_LAUNCH_TIMEOUT_PROPERTY = "driver.launchTimeoutMillis";
+
+    /** Default time a borrow waits for a session launched in the background */
+    public static final long DRIVER_LAUNCH_TIMEOUT_MILLIS = 120000;
+
+    // ========================
+    // LOGIN MODE CONSTANTS
+    // ========================
+
+    /** System property selecting how scenarios log in: ui or fast */
+    public static final String LOGIN_MODE_PROPERTY = "login.mode";
+
+    /** Log in by filling and submitting the login form */
+    public static final String LOGIN_MODE_UI = "ui";
+
+    /** Log in by injecting a session captured from an earlier UI login of the same user */
+    public static final String LOGIN_MODE_FAST = "fast";
+
+    /** Scenarios with this tag always log in through the login form */
+    public static final String UI_LOGIN_TAG = "@uiLogin";
+
+    /** Light same-origin URL opened to set cookies when the browser is on another site */
+    public static final String FAST_LOGIN_BOOTSTRAP_URL = BASE_URL + "favicon.ico";
+
+    // ========================
+    // RESOURCE PROFILE CONSTANTS
+    // ========================
+
+    /** System property for the resource profile of scenarios without a profile tag */
+    public static final String RESOURCE_PROFILE_PROPERTY = "resource.profile";
+
+    /** System property prefix for the URL patterns blocked by a profile, e.g. resource.block.functional */
+    public static final String RESOURCE_BLOCK_PROPERTY_PREFIX = "resource.block.";
+
+    /** Tag prefix selecting the resource profile of a scenario, e.g. @resources:functional */
+    public static final String RESOURCE_PROFILE_TAG_PREFIX = "@resources:";
+
+    /** Profile loading everything, for visual checks */
+    public static final String RESOURCE_PROFILE_VISUAL = "visual";
+
+    /** Profile blocking images, fonts and analytics, for functional checks */
+    public static final String RESOURCE_PROFILE_FUNCTIONAL = "functional";
+
+    /** URL patterns blocked by the functional profile (* matches any characters) */
+    public static final String RESOURCE_FUNCTIONAL_BLOCKED = "*.png,*.jpg,*.jpeg,*.gif,*.svg,*.webp,"
+            + "*.woff,*.woff2,*.ttf,*.otf,*google-analytics.com*,*googletagmanager.com*,*backtrace.io*";
+
+    // ========================
+    // TRAFFIC ARCHIVE CONSTANTS
+    // ========================
+
+    /** System property for the browser traffic archive mode: off, record or replay */
+    public static final String TRAFFIC_MODE_PROPERTY = "traffic.mode";
+
+    /** Traffic mode leaving browser traffic alone */
+    public static final String TRAFFIC_MODE_OFF = "off";
+
+    /** Traffic mode loading everything from the network and recording it */
+    public static final String TRAFFIC_MODE_RECORD = "record";
+
+    /** Traffic mode serving recorded responses and recording the ones not archived yet */
+    public static final String TRAFFIC_MODE_REPLAY = "replay";
+
+    /** System property for the directory of the traffic archive */
+    public static final String TRAFFIC_ARCHIVE_PROPERTY = "traffic.archive";
+
+    /** Default directory of the traffic archive, kept across builds */
+    public static final String TRAFFIC_ARCHIVE_DIR = "traffic-archive";
+
+    // ========================
+    // API CLIENT CONSTANTS
+    // ========================
+
+    /** System property to negotiate HTTP/2 with API servers (falls back to HTTP/1.1) */
+    public static final String API_HTTP2_PROPERTY = "api.http2";
+
+    /** System property for the maximum number of requests in flight per route (scheme, host and port) */
+    public static final String API_MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "api.maxConnectionsPerRoute";
+
+    /** System property for the API connect timeout in milliseconds */
+    public static final String API_CONNECT_TIMEOUT_PROPERTY = "api.connectTimeoutMillis";
+
+    /** System property for the API request timeout in milliseconds */
+    public static final String API_REQUEST_TIMEOUT_PROPERTY = "api.requestTimeoutMillis";
+
+    /** System property for the time idle API connections are kept open in seconds */
+    public static final String API_KEEP_ALIVE_SECONDS_PROPERTY = "api.keepAliveSeconds";
+
+    /** System property for the number of pages of a paginated API fetched concurrently */
+    public static final String API_PAGE_PARALLELISM_PROPERTY = "api.pageParallelism";
+
+    /** System property selecting the API response cache scope: off, request, scenario or run */
+    public static final String API_CACHE_PROPERTY = "api.cache";
+
+    /** API responses are never reused */
+    public static final String API_CACHE_OFF = "off";
+
+    /** Identical API GETs in flight at the same time share one response */
+    public static final String API_CACHE_REQUEST = "request";
+
+    /** API responses are reused until the scenario ends (default) */
+    public static final String API_CACHE_SCENARIO = "scenario";
+
+    /** API responses are reused by all scenarios of the run */
+    public static final String API_CACHE_RUN = "run";
+
+    /** System property for the time a cached API response is used before it is revalidated */
+    public static final String API_CACHE_TTL_PROPERTY = "api.cache.ttlMillis";
+
+    /** System property for the number of API responses kept per cache store */
+    public static final String API_CACHE_MAX_ENTRIES_PROPERTY = "api.cache.maxEntries";
+
+    /** Default maximum number of requests in flight per route */
+    public static final int API_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    /** Default number of pages of a paginated API fetched concurrently */
+    public static final int API_PAGE_PARALLELISM = 4;
+
+    /** Default time a cached API response is used before it is revalidated */
+    public static final long API_CACHE_TTL_MILLIS = 60000;
+
+    /** Default number of API responses kept per cache store */
+    public static final int API_CACHE_MAX_ENTRIES = 256;
+
+    /** Default API connect timeout in milliseconds */
+    public static final long API_CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /** Default API request timeout in milliseconds */
+    public static final long API_REQUEST_TIMEOUT_MILLIS = 30000;
+
+    /** Default time idle API connections are kept open in seconds */
+    public static final long API_KEEP_ALIVE_SECONDS = 300;
+
+    // ========================
+    // API STUB CONSTANTS
+    // ========================
+
+    /** BaseURL keyword selecting the in-process reqres stub server */
+    public static final String REQRES_STUB_KEYWORD = "stub";
+
+    /** System property replacing the reqres base URL of the features, e.g. stub */
+    public static final String REQRES_BASE_URL_PROPERTY = "reqres.baseUrl";
+
+    /** System property for the port of the reqres stub (0 picks a free port) */
+    public static final String REQRES_STUB_PORT_PROPERTY = "stub.port";
+
+    // ========================
+    // SCENARIO HISTORY CONSTANTS
+    // ========================
+
+    /** System property for the scenario duration history file */
+    public static final String SCENARIO_HISTORY_FILE_PROPERTY = "scenario.history.file";
+
+    /** Default scenario duration history file (JSON lines) */
+    public static final String SCENARIO_HISTORY_FILE = "target/scenario-history.jsonl";
+
+    /** Weight of the latest run in the moving average of a scenario duration */
+    public static final double SCENARIO_HISTORY_WEIGHT = 0.3;
+
+    /** History lines kept per scenario before the file is compacted */
+    public static final int SCENARIO_HISTORY_COMPACT_RATIO = 4;
+
+    // ========================
+    // REPORT CONSTANTS
+    // ========================
+
+    /** System property for the interval of the background Extent report writer */
+    public static final String REPORT_FLUSH_INTERVAL_PROPERTY = "report.flushIntervalMillis";
+
+    /** Default interval between Extent report writes; log events are batched in between */
+    public static final long REPORT_FLUSH_INTERVAL_MILLIS = 2000;
+
+    /** System property selecting the report writer */
+    public static final String REPORT_MODE_PROPERTY = "report.mode";
+
+    /** Report mode keeping all tests in the Extent model and re-rendering the HTML on every write */
+    public static final String REPORT_MODE_EXTENT = "extent";
+
+    /** Report mode appending scenario events to a JSON lines log, rendered to HTML once at the end */
+    public static final String REPORT_MODE_STREAM = "stream";
+
+    /** System property for the event log of stream mode, the HTML report is rendered next to it */
+    public static final String REPORT_EVENT_LOG_PROPERTY = "report.eventLog";
+
+    /** System property for the screenshot file format: jpg, png, or webp with an ImageIO WebP plugin */
+    public static final String SCREENSHOT_FORMAT_PROPERTY = "screenshot.format";
+
+    /** Default screenshot file format */
+    public static final String SCREENSHOT_FORMAT = "jpg";
+
+    /** System property for the compression quality of screenshots, 0.0 to 1.0 */
+    public static final String SCREENSHOT_QUALITY_PROPERTY = "screenshot.quality";
+
+    /** Default compression quality of screenshots */
+    public static final float SCREENSHOT_QUALITY = 0.75f;
+
+    /** System property for the number of background screenshot encoder threads */
+    public static final String SCREENSHOT_ENCODER_THREADS_PROPERTY = "screenshot.encoderThreads";
+
+    /** Default number of background screenshot encoder threads */
+    public static final int SCREENSHOT_ENCODER_THREADS = 2;
+
+    /** Time the final report write waits for screenshots still being encoded */
+    public static final long SCREENSHOT_SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+    // ========================
+    // TRACING CONSTANTS
+    // ========================
+
+    /** System property enabling OpenTelemetry spans for scenarios, steps, page objects, WebDriver commands and API calls */
+    public static final String TRACING_ENABLED_PROPERTY = "tracing.enabled";
+
+    /** System property selecting where finished spans go: file or memory */
+    public static final String TRACING_EXPORTER_PROPERTY = "tracing.exporter";
+
+    /** Exporter writing spans as OTLP/JSON lines to a file */
+    public static final String TRACING_EXPORTER_FILE = "file";
+
+    /** Exporter keeping spans in memory for inspection by the running JVM */
+    public static final String TRACING_EXPORTER_MEMORY = "memory";
+
+    /** System property for the OTLP/JSON lines file of the file exporter */
+    public static final String TRACING_FILE_PROPERTY = "tracing.file";
+
+    /** Default OTLP/JSON lines file, one ExportTraceServiceRequest per line */
+    public static final String TRACING_FILE = "target/traces.jsonl";
+
+    /** System property for the folded stacks file written when the JVM exits */
+    public static final String TRACING_FLAMEGRAPH_PROPERTY = "tracing.flamegraph";
+
+    /** Default folded stacks file, input of flamegraph.pl or speedscope */
+    public static final String TRACING_FLAMEGRAPH_FILE = "target/trace-flamegraph.txt";
+
+    /** Maximum number of spans kept by the memory exporter, older spans are dropped */
+    public static final int TRACING_MEMORY_MAX_SPANS = 100000;
+
+    /** Package of the page objects, whose methods calling WebDriver get their own spans */
+    public static final String TRACING_PAGE_PACKAGE = "PageObjects";
+
     // ========================
     // TEST DATA CONSTANTS
     // ========================
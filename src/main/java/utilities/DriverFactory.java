@@ -47,40 +47,59 @@ public class DriverFactory {
         setBrowserName(browserName.toLowerCase().trim());
 
         try {
-            switch (getBrowserName()) {
-                case Constants.CHROME:
-                    initializeChromeDriver(headless);
-                    break;
-
-                case Constants.FIREFOX:
-                    initializeFirefoxDriver(headless);
-                    break;
-
-                case Constants.EDGE:
-                    initializeEdgeDriver(headless);
-                    break;
-
-                case Constants.SAFARI:
-                    initializeSafariDriver();
-                    break;
-
-                default:
-                    throw new RuntimeException("Browser not supported: " + browserName +
-                            ". Supported browsers: chrome, firefox, edge, safari");
+            if (DriverPool.isEnabled()) {
+                driver.set(DriverPool.borrow(getBrowserName(), headless));
+            } else {
+                driver.set(createDriver(getBrowserName(), headless));
             }
-
-            configureDriver();
-
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize WebDriver for browser: " + browserName, e);
         }
+        // The resource profile starts from a clean set of DevTools listeners, so it goes first
+        ResourceBlocker.attach(driver.get());
+        TrafficArchive.attach(driver.get());
+    }
+
+    /**
+     * Launch and configure a new WebDriver session without binding it to the current thread
+     * @param browserName Name of the browser (chrome/firefox/edge/safari)
+     * @param headless true for headless mode, false for normal mode
+     * @return Newly launched WebDriver instance
+     */
+    static WebDriver createDriver(String browserName, boolean headless) {
+        WebDriver webDriver;
+        switch (browserName) {
+            case Constants.CHROME:
+                webDriver = initializeChromeDriver(headless);
+                break;
+
+            case Constants.FIREFOX:
+                webDriver = initializeFirefoxDriver(headless);
+                break;
+
+            case Constants.EDGE:
+                webDriver = initializeEdgeDriver(headless);
+                break;
+
+            case Constants.SAFARI:
+                webDriver = initializeSafariDriver();
+                break;
+
+            default:
+                throw new RuntimeException("Browser not supported: " + browserName +
+                        ". Supported browsers: chrome, firefox, edge, safari");
+        }
+
+        configureDriver(webDriver);
+        return webDriver;
     }
 
     /**
      * Initialize Chrome WebDriver with options
      * @param headless true for headless mode
+     * @return ChromeDriver instance
      */
-    private static void initializeChromeDriver(boolean headless) {
+    private static WebDriver initializeChromeDriver(boolean headless) {
         ChromeOptions chromeOptions = new ChromeOptions();
 
         // Performance and stability options
@@ -91,8 +110,6 @@ public class DriverFactory {
         chromeOptions.addArguments("--allow-running-insecure-content");
         chromeOptions.addArguments("--disable-extensions");
         chromeOptions.addArguments("--disable-plugins");
-        chromeOptions.addArguments("--disable-images");
-        chromeOptions.addArguments("--disable-javascript");
         chromeOptions.addArguments("--window-size=1920,1080");
         chromeOptions.addArguments("--start-maximized");
 
@@ -107,14 +124,15 @@ public class DriverFactory {
         chromeOptions.setExperimentalOption("useAutomationExtension", false);
         chromeOptions.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
 
-        driver.set(new ChromeDriver(chromeOptions));
+        return new ChromeDriver(chromeOptions);
     }
 
     /**
      * Initialize Firefox WebDriver with options
      * @param headless true for headless mode
+     * @return FirefoxDriver instance
      */
-    private static void initializeFirefoxDriver(boolean headless) {
+    private static WebDriver initializeFirefoxDriver(boolean headless) {
         FirefoxOptions firefoxOptions = new FirefoxOptions();
 
         // Window size options
@@ -130,14 +148,18 @@ public class DriverFactory {
         firefoxOptions.addPreference("dom.webnotifications.enabled", false);
         firefoxOptions.addPreference("media.volume_scale", "0.0");
 
-        driver.set(new FirefoxDriver(firefoxOptions));
+        // WebDriver BiDi is how ResourceBlocker and TrafficArchive reach Firefox's network
+        firefoxOptions.enableBiDi();
+
+        return new FirefoxDriver(firefoxOptions);
     }
 
     /**
      * Initialize Edge WebDriver with options
      * @param headless true for headless mode
+     * @return EdgeDriver instance
      */
-    private static void initializeEdgeDriver(boolean headless) {
+    private static WebDriver initializeEdgeDriver(boolean headless) {
         EdgeOptions edgeOptions = new EdgeOptions();
 
         // Performance and stability options
@@ -154,15 +176,16 @@ public class DriverFactory {
 
         edgeOptions.addArguments("--remote-allow-origins=*");
 
-        driver.set(new EdgeDriver(edgeOptions));
+        return new EdgeDriver(edgeOptions);
     }
 
     /**
      * Initialize Safari WebDriver
      * Note: Safari doesn't support headless mode
+     * @return SafariDriver instance
      */
-    private static void initializeSafariDriver() {
-        driver.set(new SafariDriver());
+    private static WebDriver initializeSafariDriver() {
+        return new SafariDriver();
     }
 
     /**
@@ -213,8 +236,9 @@ public class DriverFactory {
                     throw new RuntimeException("Browser not supported for remote execution: " + browserName);
             }
 
-            driver.set(new RemoteWebDriver(new URL(gridUrl), capabilities));
-            configureDriver();
+            WebDriver remoteDriver = new RemoteWebDriver(new URL(gridUrl), capabilities);
+            configureDriver(remoteDriver);
+            driver.set(remoteDriver);
 
         } catch (MalformedURLException e) {
             throw new RuntimeException("Invalid Grid URL: " + gridUrl, e);
@@ -225,9 +249,9 @@ public class DriverFactory {
 
     /**
      * Configure WebDriver with common settings
+     * @param webDriver WebDriver instance to configure
      */
-    private static void configureDriver() {
-        WebDriver webDriver = getDriver();
+    private static void configureDriver(WebDriver webDriver) {
 
         // Maximize window (except for headless mode)
         try {
@@ -275,13 +299,25 @@ public class DriverFactory {
     }
 
     /**
-     * Close current WebDriver instance and clean up thread local variables
+     * Close current WebDriver instance and clean up thread local variables.
+     * Pooled sessions are reset and returned to the {@link DriverPool} instead of being quit.
+     * With the asynchronous lifecycle the reset/quit happens on a background reaper thread.
+     * The resource profile and traffic interception of the scenario are removed first, so pooled
+     * sessions come back unblocked and talking to the network.
      */
     public static void closeDriver() {
         WebDriver webDriver = driver.get();
         if (webDriver != null) {
             try {
-                webDriver.quit();
+                ResourceBlocker.detach(webDriver);
+                TrafficArchive.detach(webDriver);
+                if (!DriverPool.release(webDriver)) {
+                    if (DriverPool.isAsyncLifecycle()) {
+                        DriverPool.quitAsync(webDriver);
+                    } else {
+                        webDriver.quit();
+                    }
+                }
             } catch (Exception e) {
                 System.err.println("Error closing WebDriver: " + e.getMessage());
             } finally {
@@ -0,0 +1,459 @@
+package utilities;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DriverPool keeps warm WebDriver sessions per browser type so that scenarios can
+ * borrow an already running browser instead of launching a new process every time.
+ * Sessions are reset between borrowers and evicted when unhealthy or worn out.
+ */
+public class DriverPool {
+
+    private static final Map<String, Deque<PooledDriver>> idleDrivers = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, PooledDriver> leasedDrivers = new ConcurrentHashMap<>();
+    private static final Map<String, Deque<Future<WebDriver>>> pendingLaunches = new ConcurrentHashMap<>();
+    private static final Set<String> warmedKeys = ConcurrentHashMap.newKeySet();
+    private static final Metrics metrics = new Metrics();
+    private static final ExecutorService launcher = Executors.newCachedThreadPool(daemonThreads("driver-launcher"));
+    private static final Map<String, AtomicInteger> recycling = new ConcurrentHashMap<>();
+    // One reaper per pooled session, so parallel scenarios reset and quit their sessions side by side
+    private static final ExecutorService reaper = Executors.newFixedThreadPool(Math.max(1, getPoolSize()),
+            daemonThreads("driver-reaper"));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+    }
+
+    /**
+     * Check if pooling is enabled for local browser sessions
+     * @return true unless disabled with -Ddriver.pool.enabled=false
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(Constants.DRIVER_POOL_ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Maximum number of idle sessions kept per browser type
+     * @return Pool size per browser type
+     */
+    public static int getPoolSize() {
+        return Integer.getInteger(Constants.DRIVER_POOL_SIZE_PROPERTY, Constants.DRIVER_POOL_SIZE);
+    }
+
+    /**
+     * Number of scenarios a single session may serve before it is retired
+     * @return Reuse budget per session
+     */
+    public static int getMaxReuse() {
+        return Integer.getInteger(Constants.DRIVER_POOL_MAX_REUSE_PROPERTY, Constants.DRIVER_POOL_MAX_REUSE);
+    }
+
+    /**
+     * Check if the asynchronous lifecycle is enabled. In this mode the next session is launched
+     * in the background while the current scenario runs, and reset/quit happen on a reaper thread.
+     * @return true if enabled with -Ddriver.lifecycle.async=true
+     */
+    public static boolean isAsyncLifecycle() {
+        return Boolean.getBoolean(Constants.DRIVER_ASYNC_LIFECYCLE_PROPERTY);
+    }
+
+    /**
+     * Borrow a session for the current thread, launching a new one if no healthy idle session exists
+     * @param browserName Name of the browser (chrome/firefox/edge/safari)
+     * @param headless true for headless mode
+     * @return WebDriver instance leased to the caller
+     */
+    public static WebDriver borrow(String browserName, boolean headless) {
+        long start = System.nanoTime();
+        String key = poolKey(browserName, headless);
+
+        if (Boolean.getBoolean(Constants.DRIVER_POOL_PREWARM_PROPERTY) && warmedKeys.add(key)) {
+            warmUp(browserName, headless, getPoolSize());
+        }
+
+        boolean borrowed = false;
+        try {
+            PooledDriver pooled;
+            Deque<PooledDriver> idle = idleQueue(key);
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled.driver)) {
+                    metrics.hits.increment();
+                    borrowed = true;
+                    return lease(pooled);
+                }
+                evict(pooled);
+            }
+
+            Future<WebDriver> launch;
+            Deque<Future<WebDriver>> pending = pendingQueue(key);
+            long timeoutMillis = Long.getLong(Constants.DRIVER_LAUNCH_TIMEOUT_PROPERTY, Constants.DRIVER_LAUNCH_TIMEOUT_MILLIS);
+            while ((launch = pending.pollFirst()) != null) {
+                try {
+                    WebDriver prelaunched = launch.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                    metrics.prelaunchHits.increment();
+                    borrowed = true;
+                    return lease(new PooledDriver(key, prelaunched));
+                } catch (TimeoutException e) {
+                    launch.cancel(true);
+                    System.err.println("Background launch of " + key + " session timed out after " + timeoutMillis + " ms");
+                } catch (Exception e) {
+                    System.err.println("Background launch of " + key + " session failed: " + e.getMessage());
+                }
+            }
+
+            metrics.misses.increment();
+            WebDriver launched = DriverFactory.createDriver(browserName, headless);
+            borrowed = true;
+            return lease(new PooledDriver(key, launched));
+        } finally {
+            // A failed borrow must not start yet another launch of a browser that cannot start
+            if (borrowed && isAsyncLifecycle()) {
+                prelaunch(browserName, headless);
+            }
+            metrics.borrows.increment();
+            metrics.borrowNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Return a session to the pool. The session is reset and kept warm, or evicted
+     * when it is unhealthy, has used up its reuse budget or the pool is full.
+     * @param webDriver WebDriver previously obtained from {@link #borrow(String, boolean)}
+     * @return true if the driver belonged to the pool, false if the caller still owns it
+     */
+    public static boolean release(WebDriver webDriver) {
+        PooledDriver pooled = leasedDrivers.remove(webDriver);
+        if (pooled == null) {
+            return false;
+        }
+
+        if (isAsyncLifecycle()) {
+            AtomicInteger inFlight = recyclingCount(pooled.key);
+            inFlight.incrementAndGet();
+            reaper.execute(() -> {
+                try {
+                    recycle(pooled);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } else {
+            recycle(pooled);
+        }
+        return true;
+    }
+
+    /**
+     * Quit a session on the reaper thread so the caller does not wait for browser teardown
+     * @param webDriver WebDriver to quit
+     */
+    public static void quitAsync(WebDriver webDriver) {
+        metrics.asyncQuits.increment();
+        reaper.execute(() -> quitQuietly(webDriver));
+    }
+
+    /**
+     * Start launching a spare session in the background unless one is already idle or on its way,
+     * including a released session still being reset
+     * @param browserName Name of the browser
+     * @param headless true for headless mode
+     */
+    public static void prelaunch(String browserName, boolean headless) {
+        String key = poolKey(browserName, headless);
+        Deque<Future<WebDriver>> pending = pendingQueue(key);
+        synchronized (pending) {
+            if (!idleQueue(key).isEmpty() || !pending.isEmpty() || recyclingCount(key).get() > 0) {
+                return;
+            }
+            metrics.prelaunches.increment();
+            pending.offerLast(launcher.submit(() -> DriverFactory.createDriver(browserName, headless)));
+        }
+    }
+
+    /**
+     * Reset a returned session and keep it idle, or evict it
+     * @param pooled Session that was just released
+     */
+    private static void recycle(PooledDriver pooled) {
+        if (pooled.uses >= getMaxReuse() || !reset(pooled.driver)) {
+            evict(pooled);
+            return;
+        }
+
+        Deque<PooledDriver> idle = idleQueue(pooled.key);
+        if (idle.size() >= getPoolSize()) {
+            evict(pooled);
+        } else {
+            idle.offerFirst(pooled);
+        }
+    }
+
+    /**
+     * Launch sessions in parallel until the pool holds the requested number of idle sessions
+     * @param browserName Name of the browser
+     * @param headless true for headless mode
+     * @param count Number of idle sessions wanted
+     */
+    public static void warmUp(String browserName, boolean headless, int count) {
+        String key = poolKey(browserName, headless);
+        Deque<PooledDriver> idle = idleQueue(key);
+        int missing = Math.min(count, getPoolSize()) - idle.size();
+        if (missing <= 0) {
+            return;
+        }
+
+        ExecutorService launcher = Executors.newFixedThreadPool(missing);
+        try {
+            List<Future<WebDriver>> launches = new ArrayList<>();
+            for (int i = 0; i < missing; i++) {
+                launches.add(launcher.submit(() -> DriverFactory.createDriver(browserName, headless)));
+            }
+            for (Future<WebDriver> launch : launches) {
+                try {
+                    idle.offerLast(new PooledDriver(key, launch.get()));
+                    metrics.warmed.increment();
+                } catch (Exception e) {
+                    System.err.println("Failed to pre-warm " + key + " session: " + e.getMessage());
+                }
+            }
+        } finally {
+            launcher.shutdown();
+        }
+    }
+
+    /**
+     * Get pool metrics (borrow latency, hits, misses, resets and evictions)
+     * @return Metrics shared by all threads
+     */
+    public static Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Quit every idle, pre-launched or still leased session and print the pool metrics. Leased
+     * sessions are left behind by aborted runs and threads that ended without closeDriver.
+     */
+    public static void shutdown() {
+        reaper.shutdown();
+        try {
+            reaper.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Deque<Future<WebDriver>> pending : pendingLaunches.values()) {
+            Future<WebDriver> launch;
+            while ((launch = pending.pollFirst()) != null) {
+                try {
+                    quitQuietly(launch.get(30, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    launch.cancel(true);
+                }
+            }
+        }
+        for (Deque<PooledDriver> idle : idleDrivers.values()) {
+            PooledDriver pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                quitQuietly(pooled.driver);
+            }
+        }
+        // After the reaper has drained, so no session is quit twice
+        for (WebDriver leased : leasedDrivers.keySet()) {
+            if (leasedDrivers.remove(leased) != null) {
+                quitQuietly(leased);
+            }
+        }
+        if (metrics.borrows.sum() > 0) {
+            System.out.println(metrics);
+        }
+    }
+
+    private static WebDriver lease(PooledDriver pooled) {
+        pooled.uses++;
+        leasedDrivers.put(pooled.driver, pooled);
+        return pooled.driver;
+    }
+
+    /**
+     * Bring a session back to a clean state: single window, no cookies or web storage, blank page
+     * @param webDriver WebDriver to reset
+     * @return true if the reset succeeded, false if the session should be discarded
+     */
+    private static boolean reset(WebDriver webDriver) {
+        try {
+            List<String> handles = new ArrayList<>(webDriver.getWindowHandles());
+            String primary = handles.get(0);
+            for (String handle : handles.subList(1, handles.size())) {
+                webDriver.switchTo().window(handle).close();
+            }
+            webDriver.switchTo().window(primary);
+
+            ((JavascriptExecutor) webDriver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            webDriver.manage().deleteAllCookies();
+            if (webDriver instanceof ChromiumDriver) {
+                // deleteAllCookies only covers the current domain
+                ((ChromiumDriver) webDriver).executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+            }
+            webDriver.get("about:blank");
+
+            metrics.resets.increment();
+            return true;
+        } catch (Exception e) {
+            metrics.resetFailures.increment();
+            return false;
+        }
+    }
+
+    private static boolean isHealthy(WebDriver webDriver) {
+        try {
+            return !webDriver.getWindowHandles().isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void evict(PooledDriver pooled) {
+        metrics.evictions.increment();
+        quitQuietly(pooled.driver);
+    }
+
+    private static void quitQuietly(WebDriver webDriver) {
+        try {
+            webDriver.quit();
+        } catch (Exception e) {
+            System.err.println("Error closing pooled WebDriver: " + e.getMessage());
+        }
+    }
+
+    private static Deque<PooledDriver> idleQueue(String key) {
+        return idleDrivers.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+    }
+
+    private static Deque<Future<WebDriver>> pendingQueue(String key) {
+        return pendingLaunches.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+    }
+
+    private static AtomicInteger recyclingCount(String key) {
+        return recycling.computeIfAbsent(key, k -> new AtomicInteger());
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static String poolKey(String browserName, boolean headless) {
+        return browserName.toLowerCase().trim() + (headless ? ":headless" : "");
+    }
+
+    /**
+     * A pooled session together with its pool key and usage count
+     */
+    private static class PooledDriver {
+        private final String key;
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(String key, WebDriver driver) {
+            this.key = key;
+            this.driver = driver;
+        }
+    }
+
+    /**
+     * Counters describing how well the pool hides browser startup
+     */
+    public static class Metrics {
+        private final LongAdder borrows = new LongAdder();
+        private final LongAdder borrowNanos = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder warmed = new LongAdder();
+        private final LongAdder prelaunches = new LongAdder();
+        private final LongAdder prelaunchHits = new LongAdder();
+        private final LongAdder asyncQuits = new LongAdder();
+        private final LongAdder resets = new LongAdder();
+        private final LongAdder resetFailures = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public long getBorrows() {
+            return borrows.sum();
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public long getWarmed() {
+            return warmed.sum();
+        }
+
+        public long getPrelaunches() {
+            return prelaunches.sum();
+        }
+
+        public long getPrelaunchHits() {
+            return prelaunchHits.sum();
+        }
+
+        public long getAsyncQuits() {
+            return asyncQuits.sum();
+        }
+
+        public long getResets() {
+            return resets.sum();
+        }
+
+        public long getResetFailures() {
+            return resetFailures.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        /**
+         * Average time spent in {@link DriverPool#borrow(String, boolean)}
+         * @return Average borrow latency in milliseconds
+         */
+        public double getAverageBorrowMillis() {
+            long count = borrows.sum();
+            return count == 0 ? 0.0 : borrowNanos.sum() / 1_000_000.0 / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("DriverPool: borrows=%d hits=%d misses=%d warmed=%d prelaunches=%d prelaunchHits=%d " +
+                            "resets=%d resetFailures=%d evictions=%d asyncQuits=%d avgBorrow=%.1fms",
+                    getBorrows(), getHits(), getMisses(), getWarmed(), getPrelaunches(), getPrelaunchHits(),
+                    getResets(), getResetFailures(), getEvictions(), getAsyncQuits(), getAverageBorrowMillis());
+        }
+    }
+}
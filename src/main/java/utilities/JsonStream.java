@@ -0,0 +1,217 @@
+package utilities;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+import org.openqa.selenium.json.JsonType;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JsonStream reads selected fields of a JSON document while it is tokenized from the
+ * input stream, without building the whole document in memory. Fields are addressed
+ * with paths such as "total_pages" or "data[*].id", where [*] stands for every element
+ * of an array. Everything that is neither selected nor on the way to a selected field
+ * is skipped token by token.
+ * <pre>
+ * JsonStream.Result result = JsonStream.select("total_pages", "data[*].id").count("data[*]").read(body);
+ * </pre>
+ */
+public class JsonStream {
+
+    private static final Json JSON = new Json();
+
+    private final Set<String> valuePaths = new LinkedHashSet<>();
+    private final Set<String> countPaths = new LinkedHashSet<>();
+    private final Set<String> prefixes = new HashSet<>();
+
+    private JsonStream() {
+    }
+
+    /**
+     * Select fields whose values are read
+     * @param paths Paths such as "total_pages" or "data[*].id"
+     * @return JsonStream
+     */
+    public static JsonStream select(String... paths) {
+        return new JsonStream().values(paths);
+    }
+
+    /**
+     * Add fields whose values are read
+     * @param paths Paths such as "total_pages" or "data[*].id"
+     * @return this
+     */
+    public JsonStream values(String... paths) {
+        for (String path : paths) {
+            valuePaths.add(path);
+            addPrefixes(path);
+        }
+        return this;
+    }
+
+    /**
+     * Add fields that are only counted; their values are skipped
+     * @param paths Paths such as "data[*]"
+     * @return this
+     */
+    public JsonStream count(String... paths) {
+        for (String path : paths) {
+            countPaths.add(path);
+            addPrefixes(path);
+        }
+        return this;
+    }
+
+    /**
+     * Read the selected fields from a UTF-8 stream; the stream is closed afterwards
+     * @param in JSON document
+     * @return Selected values and counts
+     */
+    public Result read(InputStream in) {
+        return read(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the selected fields from a reader; the reader is closed afterwards
+     * @param reader JSON document
+     * @return Selected values and counts
+     */
+    public Result read(Reader reader) {
+        Result result = new Result(valuePaths, countPaths);
+        try (JsonInput input = JSON.newInput(reader)) {
+            if (input.peek() != JsonType.END) {
+                readValue(input, "", result);
+            }
+        }
+        return result;
+    }
+
+    private void readValue(JsonInput input, String path, Result result) {
+        if (countPaths.contains(path)) {
+            result.counts.merge(path, 1L, Long::sum);
+        }
+        if (valuePaths.contains(path)) {
+            result.values.get(path).add(input.read(Object.class));
+            return;
+        }
+        if (!prefixes.contains(path)) {
+            input.skipValue();
+            return;
+        }
+        switch (input.peek()) {
+            case START_MAP:
+                input.beginObject();
+                while (input.hasNext()) {
+                    String name = input.nextName();
+                    readValue(input, path.isEmpty() ? name : path + "." + name, result);
+                }
+                input.endObject();
+                break;
+            case START_COLLECTION:
+                input.beginArray();
+                while (input.hasNext()) {
+                    readValue(input, path + "[*]", result);
+                }
+                input.endArray();
+                break;
+            default:
+                input.skipValue();
+        }
+    }
+
+    private void addPrefixes(String path) {
+        // Every path leading to a selected field must be descended into
+        prefixes.add("");
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '.' || c == '[') {
+                prefixes.add(path.substring(0, i));
+            }
+        }
+    }
+
+    /**
+     * Values and counts read by a JsonStream
+     */
+    public static class Result {
+        private final Map<String, List<Object>> values = new LinkedHashMap<>();
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+
+        Result(Set<String> valuePaths, Set<String> countPaths) {
+            valuePaths.forEach(path -> values.put(path, new ArrayList<>()));
+            countPaths.forEach(path -> counts.put(path, 0L));
+        }
+
+        /**
+         * Get all values found at a selected path, in document order
+         * @param path Selected path
+         * @return Values; numbers are Long or Double, objects Map and arrays List
+         */
+        public List<Object> getValues(String path) {
+            List<Object> found = values.get(path);
+            if (found == null) {
+                throw new IllegalArgumentException("Path was not selected: " + path);
+            }
+            return Collections.unmodifiableList(found);
+        }
+
+        /**
+         * Get the first value found at a selected path
+         * @param path Selected path
+         * @return Value, or null if the path was not in the document
+         */
+        public Object getValue(String path) {
+            List<Object> found = getValues(path);
+            return found.isEmpty() ? null : found.get(0);
+        }
+
+        /**
+         * Get the first value found at a selected path as int
+         * @param path Selected path
+         * @return Value
+         */
+        public int getInt(String path) {
+            Object value = getValue(path);
+            if (!(value instanceof Number)) {
+                throw new IllegalStateException("No number found at " + path + ": " + value);
+            }
+            return ((Number) value).intValue();
+        }
+
+        /**
+         * Get the number of values found at a path selected for values or counting
+         * @param path Selected path
+         * @return Number of values
+         */
+        public long getCount(String path) {
+            Long count = counts.get(path);
+            return count != null ? count : getValues(path).size();
+        }
+
+        /**
+         * Check that no value was found twice at a selected path
+         * @param path Selected path
+         * @return true if all values differ
+         */
+        public boolean isUnique(String path) {
+            List<Object> found = getValues(path);
+            return new HashSet<>(found).size() == found.size();
+        }
+
+        @Override
+        public String toString() {
+            return "values=" + values + ", counts=" + counts;
+        }
+    }
+}
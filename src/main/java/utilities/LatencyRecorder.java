@@ -0,0 +1,99 @@
+package utilities;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * LatencyRecorder keeps one HDR histogram per endpoint (e.g. "GET /api/users/{id}").
+ * The ApiClient records the time of every request sent over the network. Recording
+ * is wait-free and does not allocate, and values are kept in microseconds with three
+ * significant digits.
+ */
+public class LatencyRecorder {
+
+    /** Path segments that are ids, replaced by {id} so all users share one endpoint */
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Record one duration
+     * @param name Endpoint or other timed operation
+     * @param nanos Duration in nanoseconds
+     */
+    public static void record(String name, long nanos) {
+        histograms.computeIfAbsent(name, key -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * Get a copy of the durations recorded under one name
+     * @param name Endpoint or other timed operation
+     * @return Histogram in microseconds, empty if nothing was recorded
+     */
+    public static Histogram getHistogram(String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram != null ? histogram.copy() : new Histogram(3);
+    }
+
+    /**
+     * Get copies of all recorded histograms
+     * @return Histograms in microseconds sorted by name
+     */
+    public static Map<String, Histogram> getHistograms() {
+        Map<String, Histogram> copies = new TreeMap<>();
+        histograms.forEach((name, histogram) -> copies.put(name, histogram.copy()));
+        return copies;
+    }
+
+    /**
+     * Discard all recorded durations
+     */
+    public static void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Get the endpoint name of a request: method and path with ids replaced, without query
+     * @param request Request
+     * @return Endpoint such as "GET /api/users/{id}"
+     */
+    public static String endpointOf(HttpRequest request) {
+        URI uri = request.uri();
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        return request.method() + " " + ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * Describe a histogram in milliseconds
+     * @param histogram Histogram in microseconds
+     * @return Count and percentiles
+     */
+    public static String describe(Histogram histogram) {
+        return String.format(Locale.ROOT, "count=%d, p50=%.1fms, p95=%.1fms, p99=%.1fms, max=%.1fms",
+                histogram.getTotalCount(), percentileMillis(histogram, 50), percentileMillis(histogram, 95),
+                percentileMillis(histogram, 99), histogram.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * Get a percentile of a histogram in milliseconds
+     * @param histogram Histogram in microseconds
+     * @param percentile Percentile between 0 and 100
+     * @return Percentile in milliseconds
+     */
+    public static double percentileMillis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private LatencyRecorder() {
+    }
+}
@@ -0,0 +1,271 @@
+package utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReqresStub is an in-process stand-in for the reqres.in API, so API scenarios run offline and
+ * without the latency and rate limits of the real service. It serves the same deterministic
+ * data on every run: 12 users, 6 per page, with the responses ReqresUserService expects for
+ * GET /api/users?page=, GET /api/users/{id}, POST /api/users and POST /api/login. Every route
+ * accepts delay=&lt;seconds&gt; like reqres.in.
+ *
+ * Response bodies of GETs are built once and written as bytes, requests are answered on the
+ * server thread without a hand-off to a worker, delayed responses are sent from a timer instead
+ * of a sleeping thread, and connections are kept alive. The stub answers tens of thousands of
+ * requests per second, so measurements of the framework's own client overhead are not skewed
+ * by the server. Select it with BaseURL "stub" in a feature, or -Dreqres.baseUrl=stub.
+ */
+public class ReqresStub {
+
+    private static final String[][] USERS = {
+            {"George", "Bluth"}, {"Janet", "Weaver"}, {"Emma", "Wong"}, {"Eve", "Holt"},
+            {"Charles", "Morris"}, {"Tracey", "Ramos"}, {"Michael", "Lawson"}, {"Lindsay", "Ferguson"},
+            {"Tobias", "Funke"}, {"Byron", "Fields"}, {"George", "Edwards"}, {"Rachel", "Howell"}};
+    private static final int PER_PAGE = 6;
+    private static final String LOGIN_TOKEN = "QpwL5tke4Pnpja7X4";
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private static volatile ReqresStub instance;
+
+    private final HttpServer server;
+    private final ScheduledExecutorService delayed;
+    private final Map<String, byte[]> getResponses = new ConcurrentHashMap<>();
+    private final AtomicInteger createdIds = new AtomicInteger(USERS.length);
+
+    private ReqresStub(int port) throws IOException {
+        // Small responses must not wait for delayed ACKs; read once when the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        delayed = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "reqres-stub-delay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // No executor: handlers run on the server thread, none of them blocks
+        server.setExecutor(null);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Start the stub once per JVM, on -Dstub.port or a free port
+     * @return Base URL of the stub, e.g. http://127.0.0.1:54321
+     */
+    public static String start() {
+        if (instance == null) {
+            synchronized (ReqresStub.class) {
+                if (instance == null) {
+                    try {
+                        instance = new ReqresStub(Integer.getInteger(Constants.REQRES_STUB_PORT_PROPERTY, 0));
+                    } catch (IOException e) {
+                        throw new RuntimeException("Cannot start the reqres stub server", e);
+                    }
+                    Runtime.getRuntime().addShutdownHook(new Thread(ReqresStub::stop, "reqres-stub-shutdown"));
+                    System.out.println("Reqres stub listening on " + instance.getBaseUrl());
+                }
+            }
+        }
+        return instance.getBaseUrl();
+    }
+
+    /**
+     * Stop the stub if it is running
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.delayed.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Resolve the base URL of the reqres API: the stub keyword starts the stub, anything else is used as is.
+     * -Dreqres.baseUrl replaces the base URL given by the feature.
+     * @param baseUrl Base URL from the feature
+     * @return Base URL to send requests to
+     */
+    public static String resolveBaseUrl(String baseUrl) {
+        String url = System.getProperty(Constants.REQRES_BASE_URL_PROPERTY, baseUrl);
+        return Constants.REQRES_STUB_KEYWORD.equalsIgnoreCase(url.trim()) ? start() : url;
+    }
+
+    private String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        // The request body must be consumed for the connection to be reused
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        int delaySeconds = parseInt(query.get("delay"), 0);
+        if (delaySeconds <= 0) {
+            respond(exchange, query, requestBody);
+            return;
+        }
+        delayed.schedule(() -> {
+            try {
+                respond(exchange, query, requestBody);
+            } catch (IOException e) {
+                System.err.println("Reqres stub could not answer " + exchange.getRequestURI() + ": " + e);
+            }
+        }, delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void respond(HttpExchange exchange, Map<String, String> query, byte[] requestBody) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/") && path.length() > 1) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            if ("GET".equals(method) && "/api/users".equals(path)) {
+                int page = parseInt(query.get("page"), 1);
+                int perPage = parseInt(query.get("per_page"), PER_PAGE);
+                send(exchange, 200, getResponses.computeIfAbsent(page + "/" + perPage, key -> usersPage(page, perPage)));
+            } else if ("GET".equals(method) && path.startsWith("/api/users/")) {
+                int id = parseInt(path.substring("/api/users/".length()), 0);
+                if (id < 1 || id > USERS.length) {
+                    send(exchange, 404, EMPTY_OBJECT);
+                } else {
+                    send(exchange, 200, getResponses.computeIfAbsent("user/" + id, key -> singleUser(id)));
+                }
+            } else if ("POST".equals(method) && "/api/users".equals(path)) {
+                JSONObject created = parseObject(requestBody);
+                created.put("id", String.valueOf(createdIds.incrementAndGet()));
+                created.put("createdAt", Instant.now().toString());
+                send(exchange, 201, created.toString().getBytes(StandardCharsets.UTF_8));
+            } else if ("POST".equals(method) && "/api/login".equals(path)) {
+                login(exchange, parseObject(requestBody));
+            } else {
+                send(exchange, 404, EMPTY_OBJECT);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Reqres stub failed on " + exchange.getRequestURI() + ": " + e);
+            throw e;
+        }
+    }
+
+    private void login(HttpExchange exchange, JSONObject credentials) throws IOException {
+        String email = credentials.optString("email", "");
+        String password = credentials.optString("password", "");
+        String error = null;
+        if (email.isEmpty()) {
+            error = "Missing email or username";
+        } else if (password.isEmpty()) {
+            error = "Missing password";
+        } else if (!isUserEmail(email)) {
+            error = "user not found";
+        }
+        JSONObject body = error == null ? new JSONObject().put("token", LOGIN_TOKEN) : new JSONObject().put("error", error);
+        send(exchange, error == null ? 200 : 400, body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // A fixed length keeps the connection open for the next request
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] usersPage(int page, int perPage) {
+        JSONArray data = new JSONArray();
+        for (int id = (page - 1) * perPage + 1; id <= Math.min(page * perPage, USERS.length) && page > 0; id++) {
+            data.put(user(id));
+        }
+        JSONObject body = new JSONObject()
+                .put("page", page)
+                .put("per_page", perPage)
+                .put("total", USERS.length)
+                .put("total_pages", (USERS.length + perPage - 1) / perPage)
+                .put("data", data)
+                .put("support", support());
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] singleUser(int id) {
+        return new JSONObject().put("data", user(id)).put("support", support()).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JSONObject user(int id) {
+        String[] name = USERS[id - 1];
+        return new JSONObject()
+                .put("id", id)
+                .put("email", (name[0] + "." + name[1]).toLowerCase() + "@reqres.in")
+                .put("first_name", name[0])
+                .put("last_name", name[1])
+                .put("avatar", "https://reqres.in/img/faces/" + id + "-image.jpg");
+    }
+
+    private static JSONObject support() {
+        return new JSONObject()
+                .put("url", "https://reqres.in/#support-heading")
+                .put("text", "Served by the local reqres stub");
+    }
+
+    private static boolean isUserEmail(String email) {
+        for (int id = 1; id <= USERS.length; id++) {
+            if (user(id).getString("email").equalsIgnoreCase(email)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JSONObject parseObject(byte[] body) {
+        try {
+            return body.length == 0 ? new JSONObject() : new JSONObject(new String(body, StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            return new JSONObject();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package utilities;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.network.BeforeRequestSent;
+import org.openqa.selenium.bidi.network.ResponseDetails;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * ResourceBlocker keeps browsers from downloading what a scenario does not need. A named
+ * profile lists URL patterns that Chrome and Edge block at the network level through the
+ * DevTools protocol (Network.setBlockedURLs), so blocked requests never leave the browser.
+ * Firefox fails them through a WebDriver BiDi request intercept (network.addIntercept) instead.
+ * Profiles are picked per scenario with a tag such as @resources:functional, otherwise with
+ * -Dresource.profile (visual, i.e. nothing blocked, by default). Patterns of a profile can be
+ * set with -Dresource.block.&lt;profile&gt;=*.png,*.woff2.
+ *
+ * Every session counts the requests and bytes it loaded and the requests it blocked. The size of
+ * a blocked response is never seen, so bytes saved are not reported. Other browsers load everything.
+ */
+public class ResourceBlocker {
+
+    private static final Map<WebDriver, Session> sessions = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> scenarioProfile = new ThreadLocal<>();
+    private static final ThreadLocal<Stats> lastStats = new ThreadLocal<>();
+
+    /**
+     * Select the profile of the scenario running on this thread from its tags
+     * @param tags Tags of the scenario
+     */
+    public static void selectProfile(Collection<String> tags) {
+        String profile = null;
+        for (String tag : tags) {
+            if (tag.startsWith(Constants.RESOURCE_PROFILE_TAG_PREFIX)) {
+                profile = tag.substring(Constants.RESOURCE_PROFILE_TAG_PREFIX.length());
+            }
+        }
+        if (profile == null) {
+            scenarioProfile.remove();
+        } else {
+            scenarioProfile.set(profile);
+        }
+    }
+
+    /**
+     * Get the profile for the scenario running on this thread
+     * @return Profile from the scenario tag, -Dresource.profile, or visual
+     */
+    public static String getProfile() {
+        String profile = scenarioProfile.get();
+        return profile != null ? profile
+                : System.getProperty(Constants.RESOURCE_PROFILE_PROPERTY, Constants.RESOURCE_PROFILE_VISUAL);
+    }
+
+    /**
+     * Get the URL patterns blocked by a profile
+     * @param profile Profile name
+     * @return Patterns, * matching any characters
+     */
+    public static List<String> getBlockedPatterns(String profile) {
+        String defaults = Constants.RESOURCE_PROFILE_FUNCTIONAL.equals(profile) ? Constants.RESOURCE_FUNCTIONAL_BLOCKED : "";
+        String patterns = System.getProperty(Constants.RESOURCE_BLOCK_PROPERTY_PREFIX + profile, defaults);
+        if (!Constants.RESOURCE_PROFILE_VISUAL.equals(profile) && !Constants.RESOURCE_PROFILE_FUNCTIONAL.equals(profile)
+                && System.getProperty(Constants.RESOURCE_BLOCK_PROPERTY_PREFIX + profile) == null) {
+            throw new IllegalArgumentException("Unknown resource profile " + profile + ", define it with -D"
+                    + Constants.RESOURCE_BLOCK_PROPERTY_PREFIX + profile + "=<patterns>");
+        }
+        List<String> blocked = new ArrayList<>();
+        for (String pattern : patterns.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                blocked.add(pattern.trim());
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Apply the profile of the current scenario to a browser of this thread
+     * @param webDriver Browser, e.g. just launched or borrowed from the pool
+     */
+    public static void attach(WebDriver webDriver) {
+        String profile = getProfile();
+        List<String> blocked = getBlockedPatterns(profile);
+        if (!(webDriver instanceof HasDevTools)) {
+            if (BiDiNetwork.isAvailable(webDriver)) {
+                attachBiDi(webDriver, profile, blocked);
+            } else if (!blocked.isEmpty()) {
+                System.out.println("Resource profile " + profile + " needs Chrome, Edge or Firefox, loading everything");
+            }
+            return;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) webDriver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            Session session = new Session(profile, Collections.emptyList(), false);
+            devTools.clearListeners();
+            devTools.addListener(event("Network.loadingFinished"),
+                    params -> session.loadingFinished(params));
+            devTools.addListener(event("Network.loadingFailed"),
+                    params -> session.loadingFailed(params));
+            devTools.send(new Command<>("Network.enable", Collections.emptyMap()));
+            devTools.send(new Command<>("Network.setBlockedURLs", Collections.singletonMap("urls", blocked)));
+            sessions.put(webDriver, session);
+        } catch (RuntimeException e) {
+            System.err.println("Resource profile " + profile + " not applied: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop blocking and counting on a browser, e.g. before it goes back to the pool. The
+     * statistics of the session are kept for {@link #takeStats()}.
+     * @param webDriver Browser
+     */
+    public static void detach(WebDriver webDriver) {
+        Session session = sessions.remove(webDriver);
+        if (session == null) {
+            return;
+        }
+        lastStats.set(session.stats());
+        if (session.bidi) {
+            BiDiNetwork.remove(webDriver, session);
+            return;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) webDriver).getDevTools();
+            devTools.send(new Command<>("Network.setBlockedURLs", Collections.singletonMap("urls", Collections.emptyList())));
+            devTools.clearListeners();
+        } catch (RuntimeException e) {
+            System.err.println("Could not clear resource profile: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get and forget the statistics of the last browser detached on this thread
+     * @return Statistics, or null without a profiled session
+     */
+    public static Stats takeStats() {
+        Stats stats = lastStats.get();
+        lastStats.remove();
+        return stats;
+    }
+
+    private static void attachBiDi(WebDriver webDriver, String profile, List<String> blocked) {
+        // Intercepting costs a round trip per request, not worth it with nothing to block
+        if (blocked.isEmpty()) {
+            return;
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String pattern : blocked) {
+            patterns.add(toRegex(pattern));
+        }
+        try {
+            Session session = new Session(profile, patterns, true);
+            BiDiNetwork.add(webDriver, session);
+            sessions.put(webDriver, session);
+        } catch (RuntimeException e) {
+            System.err.println("Resource profile " + profile + " not applied: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Turn a blocked URL pattern into a regex matching whole URLs like Network.setBlockedURLs
+     * @param pattern Pattern, * matching any characters
+     * @return Regex
+     */
+    static Pattern toRegex(String pattern) {
+        String[] parts = pattern.split("\\*", -1);
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static Event<Map<?, ?>> event(String method) {
+        return new Event<>(method, input -> input.read(Map.class));
+    }
+
+    /**
+     * Network traffic of one profiled browser session
+     */
+    private static class Session implements BiDiNetwork.Listener {
+        private final String profile;
+        // Only set for BiDi sessions, DevTools matches the patterns itself
+        private final List<Pattern> blockedPatterns;
+        private final boolean bidi;
+        private final AtomicLong loaded = new AtomicLong();
+        private final AtomicLong loadedBytes = new AtomicLong();
+        private final AtomicLong blocked = new AtomicLong();
+
+        Session(String profile, List<Pattern> blockedPatterns, boolean bidi) {
+            this.profile = profile;
+            this.blockedPatterns = blockedPatterns;
+            this.bidi = bidi;
+        }
+
+        void loadingFinished(Map<?, ?> params) {
+            long bytes = params.get("encodedDataLength") instanceof Number ? ((Number) params.get("encodedDataLength")).longValue() : 0;
+            loaded.incrementAndGet();
+            loadedBytes.addAndGet(bytes);
+        }
+
+        void loadingFailed(Map<?, ?> params) {
+            if (params.get("blockedReason") != null) {
+                blocked.incrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean beforeRequest(Network network, BeforeRequestSent request) {
+            String url = request.getRequest().getUrl();
+            for (Pattern pattern : blockedPatterns) {
+                if (pattern.matcher(url).matches()) {
+                    network.failRequest(request.getRequest().getRequestId());
+                    blocked.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void responseCompleted(ResponseDetails response) {
+            loaded.incrementAndGet();
+            loadedBytes.addAndGet(response.getResponseData().getBytesReceived());
+        }
+
+        Stats stats() {
+            return new Stats(profile, loaded.get(), loadedBytes.get(), blocked.get());
+        }
+    }
+
+    /**
+     * Requests and bytes loaded and requests blocked by one browser session
+     */
+    public static class Stats {
+        private final String profile;
+        private final long loadedRequests;
+        private final long loadedBytes;
+        private final long blockedRequests;
+
+        Stats(String profile, long loadedRequests, long loadedBytes, long blockedRequests) {
+            this.profile = profile;
+            this.loadedRequests = loadedRequests;
+            this.loadedBytes = loadedBytes;
+            this.blockedRequests = blockedRequests;
+        }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        public long getLoadedRequests() {
+            return loadedRequests;
+        }
+
+        public long getLoadedBytes() {
+            return loadedBytes;
+        }
+
+        public long getBlockedRequests() {
+            return blockedRequests;
+        }
+
+        @Override
+        public String toString() {
+            return "Resource profile " + profile + ": " + loadedRequests + " requests loaded (" + loadedBytes / 1024
+                    + " KB), " + blockedRequests + " blocked";
+        }
+    }
+
+    private ResourceBlocker() {
+    }
+}
@@ -0,0 +1,277 @@
+package utilities;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * ResponseCache keeps successful GET responses of the {@link ApiClient} so repeated calls
+ * to the same endpoint do not generate duplicate traffic. The scope is selected with
+ * -Dapi.cache:
+ * <ul>
+ *   <li>off - every call goes to the server</li>
+ *   <li>request - identical GETs of a scenario in flight at the same time share one response</li>
+ *   <li>scenario - responses are reused until the scenario ends (default)</li>
+ *   <li>run - responses are reused by all scenarios of the JVM</li>
+ * </ul>
+ * Identical GETs in flight are shared only within one store, so in the request and scenario
+ * scopes a scenario never gets a response sent for another one. Shared responses are counted as
+ * coalesced, apart from the hits served from stored entries.
+ * Entries older than -Dapi.cache.ttlMillis are revalidated with If-None-Match when the
+ * server sent an ETag, otherwise fetched again. Each store holds at most
+ * -Dapi.cache.maxEntries entries and evicts the least recently used one.
+ */
+public class ResponseCache {
+
+    private static final ThreadLocal<Store> scenarioStore = new ThreadLocal<>();
+    private static volatile Store runStore;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder coalesced = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder revalidations = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (getLookups() + getCoalesced() > 0) {
+                System.out.println("API response cache: " + getStats());
+            }
+        }, "response-cache-stats"));
+    }
+
+    /**
+     * Send a request through the cache
+     * @param request Request to send
+     * @param transport Sends a request to the server
+     * @return Future completing with the cached or fresh response
+     */
+    static CompletableFuture<HttpResponse<String>> send(HttpRequest request,
+                                                      Function<HttpRequest, CompletableFuture<HttpResponse<String>>> transport) {
+        String scope = getScope();
+        if (Constants.API_CACHE_OFF.equals(scope) || !isCacheable(request)) {
+            return transport.apply(request);
+        }
+        String key = keyOf(request);
+        Store store = storeFor(scope);
+        // The request scope only shares requests in flight, it keeps no responses
+        boolean keep = Constants.API_CACHE_SCENARIO.equals(scope) || Constants.API_CACHE_RUN.equals(scope);
+        Entry entry = keep ? store.get(key) : null;
+        if (entry != null && entry.isFresh()) {
+            hits.increment();
+            return CompletableFuture.completedFuture(entry.response);
+        }
+
+        CompletableFuture<HttpResponse<String>> pending = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<String>> running = store.inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            // Same GET of this store already on the wire, share its response
+            coalesced.increment();
+            return running;
+        }
+
+        HttpRequest toSend = request;
+        if (entry != null && entry.etag != null) {
+            toSend = HttpRequest.newBuilder(request, (name, value) -> true)
+                    .header("If-None-Match", entry.etag)
+                    .build();
+        }
+        CompletableFuture<HttpResponse<String>> sent;
+        try {
+            sent = transport.apply(toSend);
+        } catch (RuntimeException e) {
+            store.inFlight.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        sent.handle((response, error) -> {
+            store.inFlight.remove(key, pending);
+            if (error != null) {
+                pending.completeExceptionally(error);
+                return null;
+            }
+            if (response.statusCode() == 304 && entry != null) {
+                revalidations.increment();
+                entry.refresh();
+                pending.complete(entry.response);
+                return null;
+            }
+            misses.increment();
+            if (keep && isStorable(response)) {
+                store.put(key, new Entry(response));
+            }
+            pending.complete(response);
+            return null;
+        });
+        return pending;
+    }
+
+    /**
+     * Drop the responses cached by the scenario running on the current thread
+     */
+    public static void endScenario() {
+        scenarioStore.remove();
+    }
+
+    /**
+     * Drop all cached responses
+     */
+    public static void clear() {
+        scenarioStore.remove();
+        runStore = null;
+    }
+
+    /**
+     * Get the configured cache scope
+     * @return off, request, scenario or run
+     */
+    public static String getScope() {
+        return System.getProperty(Constants.API_CACHE_PROPERTY, Constants.API_CACHE_SCENARIO).trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of requests that shared the response of an identical request in flight
+     * @return Coalesced requests, not counted as hits or lookups
+     */
+    public static long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static long getRevalidations() {
+        return revalidations.sum();
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the number of cacheable requests, whether served from the cache or not
+     * @return Hits, revalidations and misses
+     */
+    public static long getLookups() {
+        return getHits() + getRevalidations() + getMisses();
+    }
+
+    /**
+     * Get the share of cacheable requests that did not transfer a response body
+     * @return Hits and revalidations divided by lookups, 0 if there were none
+     */
+    public static double getHitRate() {
+        long lookups = getLookups();
+        return lookups == 0 ? 0 : (double) (getHits() + getRevalidations()) / lookups;
+    }
+
+    /**
+     * Get the cache statistics as one line
+     * @return Statistics
+     */
+    public static String getStats() {
+        return String.format(Locale.ROOT, "scope=%s, hits=%d, revalidated=%d, misses=%d, coalesced=%d, evictions=%d, hitRate=%.1f%%",
+                getScope(), getHits(), getRevalidations(), getMisses(), getCoalesced(), getEvictions(), getHitRate() * 100);
+    }
+
+    private static Store storeFor(String scope) {
+        if (Constants.API_CACHE_RUN.equals(scope)) {
+            if (runStore == null) {
+                synchronized (ResponseCache.class) {
+                    if (runStore == null) {
+                        runStore = new Store();
+                    }
+                }
+            }
+            return runStore;
+        }
+        // The request scope uses the scenario store for its requests in flight only
+        Store store = scenarioStore.get();
+        if (store == null) {
+            store = new Store();
+            scenarioStore.set(store);
+        }
+        return store;
+    }
+
+    private static boolean isCacheable(HttpRequest request) {
+        return "GET".equals(request.method())
+                && !request.headers().firstValue("Cache-Control").map(value -> value.contains("no-cache")).orElse(false);
+    }
+
+    private static boolean isStorable(HttpResponse<String> response) {
+        return response.statusCode() == 200
+                && !response.headers().firstValue("Cache-Control").map(value -> value.contains("no-store")).orElse(false);
+    }
+
+    private static String keyOf(HttpRequest request) {
+        return request.uri() + " " + new TreeMap<>(request.headers().map());
+    }
+
+    private static long ttlNanos() {
+        return Long.getLong(Constants.API_CACHE_TTL_PROPERTY, Constants.API_CACHE_TTL_MILLIS) * 1_000_000;
+    }
+
+    /**
+     * Cached response with the time it was last confirmed by the server
+     */
+    private static class Entry {
+        private final HttpResponse<String> response;
+        private final String etag;
+        private volatile long validatedAt = System.nanoTime();
+
+        Entry(HttpResponse<String> response) {
+            this.response = response;
+            this.etag = response.headers().firstValue("ETag").orElse(null);
+        }
+
+        boolean isFresh() {
+            return System.nanoTime() - validatedAt < ttlNanos();
+        }
+
+        void refresh() {
+            validatedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Size bounded store evicting the least recently used entry, with the requests in flight for it
+     */
+    private static class Store {
+        private final int maxEntries = Math.max(1,
+                Integer.getInteger(Constants.API_CACHE_MAX_ENTRIES_PROPERTY, Constants.API_CACHE_MAX_ENTRIES));
+
+        private final Map<String, CompletableFuture<HttpResponse<String>>> inFlight = new ConcurrentHashMap<>();
+
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        synchronized Entry get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, Entry entry) {
+            entries.put(key, entry);
+        }
+    }
+}
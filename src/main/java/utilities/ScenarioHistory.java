@@ -0,0 +1,166 @@
+package utilities;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ScenarioHistory persists scenario durations in a JSON-lines file under target/ so that
+ * later runs can schedule the longest scenarios first. Every finished scenario appends one
+ * line; the estimate of a scenario is the moving average of its recorded durations.
+ * Shards running in separate JVMs append to the same file under a file lock.
+ */
+public class ScenarioHistory {
+
+    /**
+     * Get the history file location
+     * @return Path set with -Dscenario.history.file, or target/scenario-history.jsonl
+     */
+    public static Path getHistoryFile() {
+        return Paths.get(System.getProperty(Constants.SCENARIO_HISTORY_FILE_PROPERTY, Constants.SCENARIO_HISTORY_FILE));
+    }
+
+    /**
+     * Build the identifier of a scenario from its feature URI and line
+     * @param featureUri URI of the feature file as reported by Cucumber
+     * @param line Line of the scenario or examples row
+     * @return Identifier in "path:line" form with a project relative path
+     */
+    public static String scenarioId(URI featureUri, long line) {
+        return relativePath(featureUri.toString()) + ":" + line;
+    }
+
+    /**
+     * Convert a feature path or URI to the project relative form used in scenario identifiers
+     * @param uri Path or URI such as "file:src/resources/Features/API_Test.feature"
+     * @return Project relative path with forward slashes
+     */
+    public static String relativePath(String uri) {
+        String path = uri.startsWith("file:") ? uri.substring("file:".length()) : uri;
+        while (path.startsWith("//")) {
+            path = path.substring(1);
+        }
+        Path resolved = Paths.get(path);
+        if (resolved.isAbsolute()) {
+            resolved = Paths.get("").toAbsolutePath().relativize(resolved);
+        }
+        return resolved.normalize().toString().replace('\\', '/');
+    }
+
+    /**
+     * Append the duration of a finished scenario to the history file
+     * @param scenarioId Identifier from {@link #scenarioId(URI, long)}
+     * @param millis Scenario duration in milliseconds
+     * @param status Scenario status, e.g. PASSED or FAILED
+     */
+    public static synchronized void record(String scenarioId, long millis, String status) {
+        JSONObject entry = new JSONObject();
+        entry.put("id", scenarioId);
+        entry.put("millis", millis);
+        entry.put("status", status);
+        entry.put("at", System.currentTimeMillis());
+        byte[] line = (entry.toString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+
+        Path file = getHistoryFile();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                FileLock lock = channel.lock();
+                try {
+                    channel.write(ByteBuffer.wrap(line));
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not record duration of " + scenarioId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the estimated duration of every scenario in the history file
+     * @return Moving average duration in milliseconds keyed by scenario id, empty without history
+     */
+    public static Map<String, Long> load() {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        for (String line : readLines()) {
+            try {
+                JSONObject entry = new JSONObject(line);
+                String id = entry.getString("id");
+                long millis = entry.getLong("millis");
+                Long previous = estimates.get(id);
+                estimates.put(id, previous == null ? millis
+                        : Math.round(Constants.SCENARIO_HISTORY_WEIGHT * millis + (1 - Constants.SCENARIO_HISTORY_WEIGHT) * previous));
+            } catch (JSONException e) {
+                // A line cut short by an interrupted run, ignore it
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * Rewrite the history file with one line per scenario once it has grown past
+     * {@link Constants#SCENARIO_HISTORY_COMPACT_RATIO} lines per scenario.
+     * Must not run while scenarios are still recording.
+     * @return true if the file was compacted
+     */
+    public static synchronized boolean compact() {
+        List<String> lines = readLines();
+        Map<String, Long> estimates = load();
+        if (lines.size() <= estimates.size() * Constants.SCENARIO_HISTORY_COMPACT_RATIO) {
+            return false;
+        }
+
+        List<String> compacted = new ArrayList<>();
+        for (Map.Entry<String, Long> estimate : estimates.entrySet()) {
+            JSONObject entry = new JSONObject();
+            entry.put("id", estimate.getKey());
+            entry.put("millis", estimate.getValue());
+            entry.put("status", "AVERAGE");
+            entry.put("at", System.currentTimeMillis());
+            compacted.add(entry.toString());
+        }
+        Path file = getHistoryFile();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, compacted, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Compacted scenario history from " + lines.size() + " to " + compacted.size() + " lines");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not compact scenario history: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static List<String> readLines() {
+        Path file = getHistoryFile();
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not read scenario history " + file + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package utilities;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimingCollector keeps the durations measured during the current scenario, one HDR
+ * histogram per operation (e.g. "GET /api/users" or "InventoryPage"), so steps can assert
+ * percentiles of what the scenario itself did. Timings are kept per thread. Histograms are
+ * reset rather than discarded between scenarios, so recording does not allocate once a
+ * thread has seen an operation. Values are in microseconds with three significant digits.
+ */
+public class TimingCollector {
+
+    private static final ThreadLocal<Map<String, Histogram>> timings = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Record one duration of the current scenario
+     * @param name Operation
+     * @param nanos Duration in nanoseconds
+     */
+    public static void record(String name, long nanos) {
+        timings.get().computeIfAbsent(name, key -> new Histogram(3))
+                .recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * Get the durations recorded for an operation in the current scenario
+     * @param name Operation
+     * @return Histogram in microseconds, empty if nothing was recorded
+     */
+    public static Histogram getHistogram(String name) {
+        return timings.get().computeIfAbsent(name, key -> new Histogram(3));
+    }
+
+    /**
+     * Discard the durations of one operation, e.g. before measuring it in isolation
+     * @param name Operation
+     */
+    public static void reset(String name) {
+        Histogram histogram = timings.get().get(name);
+        if (histogram != null) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Discard all durations of the current scenario
+     */
+    public static void endScenario() {
+        timings.get().values().forEach(Histogram::reset);
+    }
+
+    private TimingCollector() {
+    }
+}
@@ -0,0 +1,557 @@
+package utilities;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracing records where the time of a scenario goes as nested OpenTelemetry spans: scenario,
+ * Cucumber step (both opened by runner.TracingPlugin), page object method, WebDriver command
+ * and API call. Page object method spans are derived from the call stack of the WebDriver
+ * commands, so page objects need no changes: consecutive commands issued by the same outermost
+ * PageObjects method within one step share one span named after the page and method.
+ *
+ * Enable it with -Dtracing.enabled=true. Spans are written as OTLP/JSON lines to
+ * target/traces.jsonl, readable by any OTLP collector with a file receiver, or kept in memory
+ * with -Dtracing.exporter=memory. Self times are summed per stack and written as folded stacks
+ * to target/trace-flamegraph.txt when the JVM exits, ready for flamegraph.pl or speedscope.
+ * Disabled tracing costs one boolean check per command.
+ */
+public class Tracing {
+
+    public static final AttributeKey<String> PAGE = AttributeKey.stringKey("page");
+    public static final AttributeKey<String> PAGE_METHOD = AttributeKey.stringKey("page.method");
+    public static final AttributeKey<String> LOCATOR = AttributeKey.stringKey("locator");
+    public static final AttributeKey<String> WEBDRIVER_COMMAND = AttributeKey.stringKey("webdriver.command");
+    public static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    public static final AttributeKey<String> HTTP_URL = AttributeKey.stringKey("url.full");
+    public static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+
+    private static final boolean ENABLED = Boolean.getBoolean(Constants.TRACING_ENABLED_PROPERTY);
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+    private static final ThreadLocal<Deque<OpenSpan>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<PageCall> pageCall = new ThreadLocal<>();
+
+    private static SdkTracerProvider tracerProvider;
+    private static MemoryExporter memoryExporter;
+    private static Tracer tracer;
+
+    static {
+        if (ENABLED) {
+            start();
+        }
+    }
+
+    /**
+     * Invocation traced by {@link #command}
+     */
+    @FunctionalInterface
+    public interface Invocation {
+        Object proceed() throws Throwable;
+    }
+
+    /**
+     * Check whether spans are recorded, -Dtracing.enabled=true
+     * @return true if tracing is enabled
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Open a span on this thread, child of the innermost open span, e.g. for a scenario or step
+     * @param name Span name
+     * @param attributes Span attributes
+     */
+    public static void begin(String name, Attributes attributes) {
+        if (!ENABLED) {
+            return;
+        }
+        endPageCall();
+        Span span = tracer.spanBuilder(name).setAllAttributes(attributes).startSpan();
+        openSpans.get().push(new OpenSpan(span, span.makeCurrent()));
+    }
+
+    /**
+     * Close the innermost span opened on this thread by {@link #begin}
+     * @param attributes Attributes known at the end, e.g. the step result
+     * @param error Failure of the traced work, or null
+     */
+    public static void end(Attributes attributes, Throwable error) {
+        if (!ENABLED) {
+            return;
+        }
+        endPageCall();
+        OpenSpan open = openSpans.get().poll();
+        if (open == null) {
+            return;
+        }
+        open.span.setAllAttributes(attributes);
+        if (error != null) {
+            open.span.recordException(error);
+            open.span.setStatus(StatusCode.ERROR, String.valueOf(error.getMessage()));
+        }
+        open.scope.close();
+        open.span.end();
+    }
+
+    /**
+     * Run a WebDriver command in a span, under the span of the page object method calling it
+     * @param target WebDriver or WebElement
+     * @param command Command name, e.g. click
+     * @param locator Locator of the element, or null
+     * @param invocation Command
+     * @return Result of the command
+     * @throws Throwable Failure of the command
+     */
+    public static Object command(String target, String command, String locator, Invocation invocation) throws Throwable {
+        if (!ENABLED) {
+            return invocation.proceed();
+        }
+        PageCall call = pageCallFor(stackWalker.walk(frames -> frames
+                .filter(Tracing::isPageFrame)
+                .reduce((inner, outer) -> outer)
+                .orElse(null)));
+        Span span = tracer.spanBuilder(target + " " + command)
+                .setParent(call != null ? call.context : Context.current())
+                .setAttribute(WEBDRIVER_COMMAND, command)
+                .startSpan();
+        if (locator != null) {
+            span.setAttribute(LOCATOR, locator);
+        }
+        if (call != null) {
+            span.setAttribute(PAGE, call.page);
+        }
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            span.end();
+            if (call != null) {
+                call.lastEnd = Instant.now();
+            }
+        }
+    }
+
+    /**
+     * End the page object method span of this thread, e.g. when a step finishes
+     */
+    public static void endPageCall() {
+        PageCall call = pageCall.get();
+        if (call != null) {
+            pageCall.remove();
+            call.span.end(call.lastEnd);
+        }
+    }
+
+    /**
+     * Open a client span for an API request
+     * @param request Request about to be sent
+     * @param parent Context of the caller, e.g. the step sending the request
+     * @return Span to pass to {@link #endHttp}, a no-op span when tracing is disabled
+     */
+    public static Span startHttp(HttpRequest request, Context parent) {
+        if (!ENABLED) {
+            return Span.getInvalid();
+        }
+        return tracer.spanBuilder("HTTP " + LatencyRecorder.endpointOf(request))
+                .setParent(parent)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(HTTP_METHOD, request.method())
+                .setAttribute(HTTP_URL, request.uri().toString())
+                .startSpan();
+    }
+
+    /**
+     * Close an API request span
+     * @param span Span from {@link #startHttp}
+     * @param status HTTP status, or -1 without a response
+     * @param error Failure of the request, or null
+     */
+    public static void endHttp(Span span, int status, Throwable error) {
+        if (!span.getSpanContext().isValid()) {
+            return;
+        }
+        if (status >= 0) {
+            span.setAttribute(HTTP_STATUS, (long) status);
+            if (status >= 500) {
+                span.setStatus(StatusCode.ERROR);
+            }
+        }
+        if (error != null) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR, String.valueOf(error.getMessage()));
+        }
+        span.end();
+    }
+
+    /**
+     * Get the spans finished so far, with -Dtracing.exporter=memory
+     * @return Finished spans in export order, empty with the file exporter or disabled tracing
+     */
+    public static List<SpanData> getFinishedSpans() {
+        if (memoryExporter == null) {
+            return new ArrayList<>();
+        }
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return new ArrayList<>(memoryExporter.spans);
+    }
+
+    private static void start() {
+        String exporterName = System.getProperty(Constants.TRACING_EXPORTER_PROPERTY, Constants.TRACING_EXPORTER_FILE);
+        SpanExporter exporter;
+        if (Constants.TRACING_EXPORTER_MEMORY.equalsIgnoreCase(exporterName)) {
+            memoryExporter = new MemoryExporter();
+            exporter = memoryExporter;
+        } else if (Constants.TRACING_EXPORTER_FILE.equalsIgnoreCase(exporterName)) {
+            exporter = new OtlpJsonFileExporter(Paths.get(System.getProperty(Constants.TRACING_FILE_PROPERTY, Constants.TRACING_FILE)));
+        } else {
+            throw new IllegalArgumentException("Unknown tracing exporter " + exporterName + ", use "
+                    + Constants.TRACING_EXPORTER_FILE + " or " + Constants.TRACING_EXPORTER_MEMORY);
+        }
+        Path flameGraph = Paths.get(System.getProperty(Constants.TRACING_FLAMEGRAPH_PROPERTY, Constants.TRACING_FLAMEGRAPH_FILE));
+        tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(
+                        Attributes.of(AttributeKey.stringKey("service.name"), "saucedemo-tests"))))
+                .addSpanProcessor(new FlameGraphProcessor(flameGraph))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+                .build();
+        tracer = tracerProvider.get(Tracing.class.getName());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+            System.out.println("Traces written to " + (memoryExporter != null ? "memory" : System.getProperty(
+                    Constants.TRACING_FILE_PROPERTY, Constants.TRACING_FILE)) + ", flame graph to " + flameGraph);
+        }, "tracing-shutdown"));
+    }
+
+    private static boolean isPageFrame(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        return className.startsWith(Constants.TRACING_PAGE_PACKAGE + ".")
+                && !className.startsWith(Constants.TRACING_PAGE_PACKAGE + ".PageStateTracker")
+                && !frame.getMethodName().startsWith("lambda$")
+                && !frame.getMethodName().equals("<init>");
+    }
+
+    private static PageCall pageCallFor(StackWalker.StackFrame frame) {
+        PageCall call = pageCall.get();
+        if (frame == null) {
+            endPageCall();
+            return null;
+        }
+        String page = frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1);
+        Span parent = Span.current();
+        if (call != null && call.page.equals(page) && call.method.equals(frame.getMethodName()) && call.parent == parent) {
+            return call;
+        }
+        endPageCall();
+        Span span = tracer.spanBuilder(page + "." + frame.getMethodName())
+                .setAttribute(PAGE, page)
+                .setAttribute(PAGE_METHOD, frame.getMethodName())
+                .startSpan();
+        call = new PageCall(page, frame.getMethodName(), parent, span);
+        pageCall.set(call);
+        return call;
+    }
+
+    /**
+     * Span opened by {@link #begin} with the scope making it current
+     */
+    private static class OpenSpan {
+        private final Span span;
+        private final Scope scope;
+
+        OpenSpan(Span span, Scope scope) {
+            this.span = span;
+            this.scope = scope;
+        }
+    }
+
+    /**
+     * Page object method span, ended when the thread moves on to another method or step
+     */
+    private static class PageCall {
+        private final String page;
+        private final String method;
+        private final Span parent;
+        private final Span span;
+        private final Context context;
+        private Instant lastEnd;
+
+        PageCall(String page, String method, Span parent, Span span) {
+            this.page = page;
+            this.method = method;
+            this.parent = parent;
+            this.span = span;
+            this.context = Context.current().with(span);
+            this.lastEnd = Instant.now();
+        }
+    }
+
+    /**
+     * Sums the self time of spans per stack of span names, written as folded stacks at shutdown
+     */
+    private static class FlameGraphProcessor implements SpanProcessor {
+        private final Path file;
+        private final Map<String, String> stacks = new ConcurrentHashMap<>();
+        private final Map<String, Long> childNanos = new ConcurrentHashMap<>();
+        private final Map<String, Long> selfNanos = new ConcurrentHashMap<>();
+
+        FlameGraphProcessor(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+            SpanContext parent = span.getParentSpanContext();
+            String parentStack = parent.isValid() ? stacks.get(parent.getSpanId()) : null;
+            String name = span.getName().replace(';', ',').replace('\n', ' ');
+            stacks.put(span.getSpanContext().getSpanId(), parentStack == null ? name : parentStack + ";" + name);
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return true;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            String spanId = span.getSpanContext().getSpanId();
+            String stack = stacks.remove(spanId);
+            long latency = span.getLatencyNanos();
+            Long children = childNanos.remove(spanId);
+            if (stack != null) {
+                selfNanos.merge(stack, Math.max(0, latency - (children == null ? 0 : children)), Long::sum);
+            }
+            SpanContext parent = span.getParentSpanContext();
+            if (parent.isValid() && stacks.containsKey(parent.getSpanId())) {
+                childNanos.merge(parent.getSpanId(), latency, Long::sum);
+            }
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (Map.Entry<String, Long> stack : new TreeMap<>(selfNanos).entrySet()) {
+                        long micros = stack.getValue() / 1000;
+                        if (micros > 0) {
+                            writer.write(stack.getKey() + " " + micros);
+                            writer.newLine();
+                        }
+                    }
+                }
+                return CompletableResultCode.ofSuccess();
+            } catch (IOException e) {
+                System.err.println("Could not write flame graph " + file + ": " + e);
+                return CompletableResultCode.ofFailure();
+            }
+        }
+    }
+
+    /**
+     * Keeps the latest finished spans in memory
+     */
+    private static class MemoryExporter implements SpanExporter {
+        private final Deque<SpanData> spans = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            for (SpanData span : batch) {
+                spans.add(span);
+                if (size.incrementAndGet() > Constants.TRACING_MEMORY_MAX_SPANS && spans.poll() != null) {
+                    size.decrementAndGet();
+                }
+            }
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    /**
+     * Writes every exported batch as one OTLP/JSON ExportTraceServiceRequest line
+     */
+    private static class OtlpJsonFileExporter implements SpanExporter {
+        private final Path file;
+        private BufferedWriter writer;
+
+        OtlpJsonFileExporter(Path file) {
+            this.file = file;
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot write traces to " + file, e);
+            }
+        }
+
+        @Override
+        public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+            if (writer == null || batch.isEmpty()) {
+                return CompletableResultCode.ofSuccess();
+            }
+            Map<InstrumentationScopeInfo, JSONArray> scopes = new LinkedHashMap<>();
+            for (SpanData span : batch) {
+                scopes.computeIfAbsent(span.getInstrumentationScopeInfo(), scope -> new JSONArray()).put(toJson(span));
+            }
+            JSONArray scopeSpans = new JSONArray();
+            scopes.forEach((scope, spans) -> scopeSpans.put(new JSONObject()
+                    .put("scope", new JSONObject().put("name", scope.getName()))
+                    .put("spans", spans)));
+            JSONObject request = new JSONObject().put("resourceSpans", new JSONArray().put(new JSONObject()
+                    .put("resource", new JSONObject().put("attributes",
+                            toJson(batch.iterator().next().getResource().getAttributes())))
+                    .put("scopeSpans", scopeSpans)));
+            try {
+                writer.write(request.toString());
+                writer.newLine();
+                writer.flush();
+                return CompletableResultCode.ofSuccess();
+            } catch (IOException e) {
+                System.err.println("Could not write traces to " + file + ": " + e);
+                return CompletableResultCode.ofFailure();
+            }
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public synchronized CompletableResultCode shutdown() {
+            try {
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                }
+                return CompletableResultCode.ofSuccess();
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+
+        private static JSONObject toJson(SpanData span) {
+            JSONObject json = new JSONObject()
+                    .put("traceId", span.getTraceId())
+                    .put("spanId", span.getSpanId())
+                    .put("name", span.getName())
+                    // OTLP numbers span kinds from 1, in the order of SpanKind
+                    .put("kind", span.getKind().ordinal() + 1)
+                    .put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()))
+                    .put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()))
+                    .put("attributes", toJson(span.getAttributes()))
+                    .put("status", new JSONObject()
+                            .put("code", span.getStatus().getStatusCode().ordinal())
+                            .put("message", span.getStatus().getDescription()));
+            if (span.getParentSpanContext().isValid()) {
+                json.put("parentSpanId", span.getParentSpanId());
+            }
+            if (!span.getEvents().isEmpty()) {
+                JSONArray events = new JSONArray();
+                for (EventData event : span.getEvents()) {
+                    events.put(new JSONObject()
+                            .put("name", event.getName())
+                            .put("timeUnixNano", String.valueOf(event.getEpochNanos()))
+                            .put("attributes", toJson(event.getAttributes())));
+                }
+                json.put("events", events);
+            }
+            return json;
+        }
+
+        private static JSONArray toJson(Attributes attributes) {
+            JSONArray json = new JSONArray();
+            attributes.forEach((key, value) -> json.put(new JSONObject()
+                    .put("key", key.getKey())
+                    .put("value", toAnyValue(value))));
+            return json;
+        }
+
+        private static JSONObject toAnyValue(Object value) {
+            if (value instanceof List) {
+                JSONArray values = new JSONArray();
+                for (Object item : (List<?>) value) {
+                    values.put(toAnyValue(item));
+                }
+                return new JSONObject().put("arrayValue", new JSONObject().put("values", values));
+            }
+            if (value instanceof Boolean) {
+                return new JSONObject().put("boolValue", value);
+            }
+            if (value instanceof Long || value instanceof Integer) {
+                // OTLP/JSON encodes 64 bit integers as strings
+                return new JSONObject().put("intValue", String.valueOf(value));
+            }
+            if (value instanceof Double) {
+                return new JSONObject().put("doubleValue", value);
+            }
+            return new JSONObject().put("stringValue", String.valueOf(value));
+        }
+    }
+
+    private Tracing() {
+    }
+}
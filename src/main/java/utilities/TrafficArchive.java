@@ -0,0 +1,414 @@
+package utilities;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.network.BeforeRequestSent;
+import org.openqa.selenium.bidi.network.BytesValue;
+import org.openqa.selenium.bidi.network.Header;
+import org.openqa.selenium.bidi.network.ProvideResponseParameters;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TrafficArchive records the responses Chrome and Edge receive and serves them again on later
+ * runs, taking network latency and variance out of UI scenarios and letting them run offline.
+ * Requests are intercepted with the DevTools Fetch domain; -Dtraffic.mode selects:
+ * <ul>
+ *   <li>off - browsers use the network (default)</li>
+ *   <li>record - browsers use the network and every successful GET response is archived</li>
+ *   <li>replay - archived GETs are answered from the archive without touching the network;
+ *   the others use the network and are archived, so the archive completes itself</li>
+ * </ul>
+ * The archive (-Dtraffic.archive) is content addressed: bodies are stored once under the
+ * SHA-256 of their bytes in blobs/, and index.jsonl maps method and URL to status, headers and
+ * body hash, later lines replacing earlier ones. Bodies are read from blobs/ for every replayed
+ * request and handed to the browser Base64 encoded, so only the index stays on the heap.
+ *
+ * Firefox is served through a WebDriver BiDi request intercept (network.provideResponse). BiDi
+ * cannot read response bodies yet, so Firefox replays an archive recorded with Chrome or Edge
+ * and sends everything else to the network without archiving it. Other browsers always use the network.
+ */
+public class TrafficArchive {
+
+    // Decoded bodies are stored, so headers describing the transfer encoding would be wrong on replay
+    private static final Set<String> TRANSFER_HEADERS = Set.of("content-encoding", "content-length", "transfer-encoding");
+
+    private static final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private static final Set<WebDriver> intercepted = ConcurrentHashMap.newKeySet();
+    private static final BiDiNetwork.Listener BIDI_REPLAY = TrafficArchive::replayBiDi;
+    private static final Object indexLock = new Object();
+    private static volatile boolean loaded;
+    private static BufferedWriter indexWriter;
+
+    private static final LongAdder replayed = new LongAdder();
+    private static final LongAdder recorded = new LongAdder();
+    private static final LongAdder passedThrough = new LongAdder();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (replayed.sum() + recorded.sum() + passedThrough.sum() > 0) {
+                System.out.println("Traffic archive " + getArchiveDir() + ": " + getStats());
+            }
+            synchronized (indexLock) {
+                closeIndexWriter();
+            }
+        }, "traffic-archive-stats"));
+    }
+
+    /**
+     * Get the traffic mode
+     * @return off, record or replay
+     */
+    public static String getMode() {
+        return System.getProperty(Constants.TRAFFIC_MODE_PROPERTY, Constants.TRAFFIC_MODE_OFF).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the directory of the archive
+     * @return Archive directory
+     */
+    public static Path getArchiveDir() {
+        return Paths.get(System.getProperty(Constants.TRAFFIC_ARCHIVE_PROPERTY, Constants.TRAFFIC_ARCHIVE_DIR));
+    }
+
+    /**
+     * Route the traffic of a browser through the archive according to the traffic mode
+     * @param webDriver Browser, e.g. just launched or borrowed from the pool
+     */
+    public static void attach(WebDriver webDriver) {
+        String mode = getMode();
+        boolean replay = Constants.TRAFFIC_MODE_REPLAY.equals(mode);
+        if (!replay && !Constants.TRAFFIC_MODE_RECORD.equals(mode)) {
+            if (!Constants.TRAFFIC_MODE_OFF.equals(mode)) {
+                throw new IllegalArgumentException("Unknown traffic mode " + mode + ", use off, record or replay");
+            }
+            return;
+        }
+        if (!(webDriver instanceof HasDevTools)) {
+            if (replay && BiDiNetwork.isAvailable(webDriver)) {
+                attachBiDi(webDriver);
+            } else {
+                System.out.println("Traffic " + mode + " needs Chrome or Edge"
+                        + (replay ? " or Firefox" : "") + ", using the network");
+            }
+            return;
+        }
+        loadIndex();
+        try {
+            DevTools devTools = ((HasDevTools) webDriver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.addListener(new Event<Map<?, ?>>("Fetch.requestPaused", input -> input.read(Map.class)),
+                    params -> requestPaused(devTools, params));
+            List<Map<String, Object>> patterns = new ArrayList<>();
+            if (replay) {
+                patterns.add(pattern("Request"));
+            }
+            patterns.add(pattern("Response"));
+            devTools.send(new Command<>("Fetch.enable", Collections.singletonMap("patterns", patterns)));
+            intercepted.add(webDriver);
+        } catch (RuntimeException e) {
+            System.err.println("Traffic " + mode + " not enabled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop intercepting the traffic of a browser, e.g. before it goes back to the pool
+     * @param webDriver Browser
+     */
+    public static void detach(WebDriver webDriver) {
+        if (!intercepted.remove(webDriver)) {
+            return;
+        }
+        if (!(webDriver instanceof HasDevTools)) {
+            BiDiNetwork.remove(webDriver, BIDI_REPLAY);
+            return;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) webDriver).getDevTools();
+            devTools.send(new Command<>("Fetch.disable", Collections.emptyMap()));
+            devTools.clearListeners();
+        } catch (RuntimeException e) {
+            System.err.println("Could not stop traffic interception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the archive counters of this JVM
+     * @return Responses replayed, recorded and passed through to the network
+     */
+    public static String getStats() {
+        return replayed.sum() + " replayed, " + recorded.sum() + " recorded, " + passedThrough.sum()
+                + " passed through, " + index.size() + " responses archived";
+    }
+
+    private static void requestPaused(DevTools devTools, Map<?, ?> params) {
+        String requestId = String.valueOf(params.get("requestId"));
+        try {
+            Map<?, ?> request = (Map<?, ?>) params.get("request");
+            String key = request.get("method") + " " + request.get("url");
+            boolean responseStage = params.containsKey("responseStatusCode") || params.containsKey("responseErrorReason");
+            if (!responseStage) {
+                Entry entry = index.get(key);
+                if (entry != null) {
+                    fulfill(devTools, requestId, entry);
+                    replayed.increment();
+                    return;
+                }
+            } else if (isArchivable(request, params)) {
+                record(devTools, requestId, key, params);
+                recorded.increment();
+            } else {
+                passedThrough.increment();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Traffic archive skipped request " + requestId + ": " + e.getMessage());
+        }
+        // Anything not answered from the archive carries on as if it had not been paused
+        devTools.send(new Command<>("Fetch.continueRequest", Collections.singletonMap("requestId", requestId)));
+    }
+
+    private static void attachBiDi(WebDriver webDriver) {
+        loadIndex();
+        try {
+            BiDiNetwork.add(webDriver, BIDI_REPLAY);
+            intercepted.add(webDriver);
+        } catch (RuntimeException e) {
+            System.err.println("Traffic replay not enabled: " + e.getMessage());
+        }
+    }
+
+    private static boolean replayBiDi(Network network, BeforeRequestSent request) {
+        Entry entry = index.get(request.getRequest().getMethod() + " " + request.getRequest().getUrl());
+        if (entry == null) {
+            passedThrough.increment();
+            return false;
+        }
+        List<Header> headers = new ArrayList<>();
+        for (Map<String, String> header : entry.headers) {
+            headers.add(new Header(header.get("name"), new BytesValue(BytesValue.Type.STRING, header.get("value"))));
+        }
+        network.provideResponse(new ProvideResponseParameters(request.getRequest().getRequestId())
+                .statusCode(entry.status)
+                .headers(headers)
+                .body(new BytesValue(BytesValue.Type.BASE64, Base64.getEncoder().encodeToString(body(entry.hash)))));
+        replayed.increment();
+        return true;
+    }
+
+    private static boolean isArchivable(Map<?, ?> request, Map<?, ?> params) {
+        if (!"GET".equals(request.get("method")) || params.containsKey("responseErrorReason")) {
+            return false;
+        }
+        int status = ((Number) params.get("responseStatusCode")).intValue();
+        // Redirects have no body and partial content is only part of one
+        return status >= 200 && status < 300 && status != 206;
+    }
+
+    private static void fulfill(DevTools devTools, String requestId, Entry entry) {
+        Map<String, Object> fulfill = new HashMap<>();
+        fulfill.put("requestId", requestId);
+        fulfill.put("responseCode", entry.status);
+        fulfill.put("responseHeaders", entry.headers);
+        fulfill.put("body", Base64.getEncoder().encodeToString(body(entry.hash)));
+        devTools.send(new Command<>("Fetch.fulfillRequest", fulfill));
+    }
+
+    private static void record(DevTools devTools, String requestId, String key, Map<?, ?> params) {
+        Map<?, ?> response = devTools.send(new Command<Map<?, ?>>("Fetch.getResponseBody",
+                Collections.singletonMap("requestId", requestId), input -> input.read(Map.class)));
+        String body = String.valueOf(response.get("body"));
+        byte[] bytes = Boolean.TRUE.equals(response.get("base64Encoded"))
+                ? Base64.getDecoder().decode(body) : body.getBytes(StandardCharsets.UTF_8);
+
+        List<Map<String, String>> headers = new ArrayList<>();
+        Object responseHeaders = params.get("responseHeaders");
+        if (responseHeaders instanceof List) {
+            for (Object header : (List<?>) responseHeaders) {
+                Map<?, ?> nameValue = (Map<?, ?>) header;
+                String name = String.valueOf(nameValue.get("name"));
+                if (!TRANSFER_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    Map<String, String> kept = new HashMap<>();
+                    kept.put("name", name);
+                    kept.put("value", String.valueOf(nameValue.get("value")));
+                    headers.add(kept);
+                }
+            }
+        }
+        Entry entry = new Entry(((Number) params.get("responseStatusCode")).intValue(), headers, writeBody(bytes));
+        appendIndex(key, entry);
+        index.put(key, entry);
+    }
+
+    private static String writeBody(byte[] bytes) {
+        String hash = sha256(bytes);
+        Path file = getArchiveDir().resolve("blobs").resolve(hash);
+        if (Files.exists(file)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path partial = Files.createTempFile(file.getParent(), hash, ".tmp");
+            Files.write(partial, bytes);
+            try {
+                Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another session stored the same content first
+                Files.deleteIfExists(partial);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write traffic archive body " + file, e);
+        }
+    }
+
+    private static byte[] body(String hash) {
+        // Not cached: the protocol needs a Base64 copy per request anyway, and the archive may not fit the heap
+        Path file = getArchiveDir().resolve("blobs").resolve(hash);
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read traffic archive body " + file, e);
+        }
+    }
+
+    private static void loadIndex() {
+        if (loaded) {
+            return;
+        }
+        synchronized (indexLock) {
+            if (loaded) {
+                return;
+            }
+            Path indexFile = getArchiveDir().resolve("index.jsonl");
+            if (Files.exists(indexFile)) {
+                try (BufferedReader in = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        try {
+                            JSONObject json = new JSONObject(line);
+                            index.put(json.getString("key"), Entry.fromJson(json));
+                        } catch (JSONException e) {
+                            // A line cut off by a crashed run
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read traffic archive index " + indexFile, e);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private static void appendIndex(String key, Entry entry) {
+        synchronized (indexLock) {
+            Path indexFile = getArchiveDir().resolve("index.jsonl");
+            try {
+                if (indexWriter == null) {
+                    Files.createDirectories(indexFile.toAbsolutePath().getParent());
+                    indexWriter = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                indexWriter.write(entry.toJson(key).toString());
+                indexWriter.newLine();
+                indexWriter.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write traffic archive index " + indexFile, e);
+            }
+        }
+    }
+
+    private static void closeIndexWriter() {
+        try {
+            if (indexWriter != null) {
+                indexWriter.close();
+                indexWriter = null;
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot close traffic archive index: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> pattern(String stage) {
+        Map<String, Object> pattern = new HashMap<>();
+        pattern.put("urlPattern", "*");
+        pattern.put("requestStage", stage);
+        return pattern;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * An archived response; the body is stored separately under its hash
+     */
+    private static class Entry {
+        private final int status;
+        private final List<Map<String, String>> headers;
+        private final String hash;
+
+        Entry(int status, List<Map<String, String>> headers, String hash) {
+            this.status = status;
+            this.headers = headers;
+            this.hash = hash;
+        }
+
+        JSONObject toJson(String key) {
+            return new JSONObject().put("key", key).put("status", status).put("headers", headers).put("body", hash);
+        }
+
+        static Entry fromJson(JSONObject json) {
+            List<Map<String, String>> headers = new ArrayList<>();
+            JSONArray array = json.getJSONArray("headers");
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject header = array.getJSONObject(i);
+                Map<String, String> nameValue = new HashMap<>();
+                nameValue.put("name", header.getString("name"));
+                nameValue.put("value", header.getString("value"));
+                headers.add(nameValue);
+            }
+            return new Entry(json.getInt("status"), headers, json.getString("body"));
+        }
+    }
+
+    private TrafficArchive() {
+    }
+}
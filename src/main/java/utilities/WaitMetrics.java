@@ -0,0 +1,164 @@
+package utilities;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WaitMetrics records how long every wait actually took, keyed by page and method
+ * (e.g. "InventoryPage.getPageTitle"). The numbers are written to target/wait-metrics.csv
+ * when the JVM exits so poll intervals and timeouts can be tuned from data.
+ */
+public class WaitMetrics {
+
+    /** Durations are bucketed by powers of two milliseconds, the last bucket holds everything longer */
+    private static final int BUCKETS = 18;
+
+    private static final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WaitMetrics::writeReport, "wait-metrics-report"));
+    }
+
+    /**
+     * Record a finished wait
+     * @param name Page and method that waited
+     * @param nanos Time spent waiting in nanoseconds
+     * @param polls Number of times the condition was evaluated
+     * @param timedOut true if the condition never became true
+     */
+    public static void record(String name, long nanos, int polls, boolean timedOut) {
+        stats.computeIfAbsent(name, key -> new Stat()).record(nanos, polls, timedOut);
+    }
+
+    /**
+     * Get the recorded statistics
+     * @return Statistics sorted by wait name
+     */
+    public static Map<String, Stat> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    /**
+     * Discard all recorded statistics
+     */
+    public static void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Write the recorded statistics as CSV to the file set with -Dwait.metrics.file
+     */
+    public static void writeReport() {
+        if (stats.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("wait,count,timeouts,avgPolls,avgMillis,p50Millis,p95Millis,maxMillis");
+        for (Map.Entry<String, Stat> entry : getStats().entrySet()) {
+            lines.add(entry.getKey() + "," + entry.getValue().toCsv());
+        }
+
+        String fileName = System.getProperty(Constants.WAIT_METRICS_FILE_PROPERTY, Constants.WAIT_METRICS_FILE);
+        if (System.getProperty("shard.index") != null) {
+            // Forked shards write one file each
+            fileName = fileName.replaceFirst("(\\.csv)?$", "-shard-" + System.getProperty("shard.index") + "$1");
+        }
+        Path file = Paths.get(fileName);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not write wait metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Statistics of all waits recorded under one name
+     */
+    public static class Stat {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder polls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos, int pollCount, boolean timedOut) {
+            count.increment();
+            polls.add(pollCount);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (timedOut) {
+                timeouts.increment();
+            }
+            long millis = nanos / 1_000_000;
+            int bucket = millis == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+            buckets.incrementAndGet(bucket);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        public double getAveragePolls() {
+            long waits = count.sum();
+            return waits == 0 ? 0 : (double) polls.sum() / waits;
+        }
+
+        public double getAverageMillis() {
+            long waits = count.sum();
+            return waits == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / waits;
+        }
+
+        public long getMaxMillis() {
+            return maxNanos.get() / 1_000_000;
+        }
+
+        /**
+         * Get an upper bound of a percentile of the wait duration
+         * @param percentile Percentile between 0 and 100
+         * @return Upper bound of the bucket holding the percentile, in milliseconds
+         */
+        public long getPercentileMillis(double percentile) {
+            long target = (long) Math.ceil(count.sum() * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) {
+                    return i == BUCKETS - 1 ? getMaxMillis() : Math.min((1L << i) - 1, getMaxMillis());
+                }
+            }
+            return 0;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%d,%d,%.1f,%.1f,%d,%d,%d", getCount(), getTimeouts(), getAveragePolls(),
+                    getAverageMillis(), getPercentileMillis(50), getPercentileMillis(95), getMaxMillis());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, timeouts=%d, avgPolls=%.1f, avg=%.1fms, p50<=%dms, p95<=%dms, max=%dms",
+                    getCount(), getTimeouts(), getAveragePolls(), getAverageMillis(),
+                    getPercentileMillis(50), getPercentileMillis(95), getMaxMillis());
+        }
+    }
+}
@@ -68,4 +68,9 @@ Feature: API test
 
   Scenario: Should see the list of users with DELAYED RESPONSE
     Given I send get request to "/api/users?delay=3" wait for the user list to load
-    Then I should see that every user has a unique id
\ No newline at end of file
+    Then I should see that every user has a unique id
+
+  @performance
+  Scenario: Should list users within the latency budget
+    Given BaseURL "stub"
+    Then the p95 latency of "/api/users" over 50 calls should be below 1000 ms
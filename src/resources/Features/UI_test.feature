@@ -60,3 +60,11 @@ Feature: Checkout items in the basket
       | Sauce Labs Onesie       | $7.99  |
     And The subtotal should be $53.97
     And Tax should be calculated at the applicable rate
+
+  @performance
+  Scenario: Inventory page loads within the budget
+    Given Navigate to home page "https://www.saucedemo.com/"
+    And I login with the following details:
+      | userName      | password     |
+      | standard_user | secret_sauce |
+    Then the page load time of the inventory page should be below 2 s
@@ -0,0 +1,158 @@
+package runner;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import runner.ScenarioCatalog.ScenarioRef;
+import utilities.Constants;
+import utilities.LatencyRecorder;
+import utilities.ResponseCache;
+import utilities.TimingCollector;
+import utilities.VirtualThreads;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadTestLauncher replays the steps of API scenarios at a fixed arrival rate. Scheduling
+ * follows the open model: iteration i starts at start + i / rate whether or not earlier
+ * iterations have finished, so a slow server shows up as growing latency instead of a
+ * quietly lower request rate. Latency is measured from the scheduled start, which keeps
+ * the generator's own delays in the numbers. Arrivals finding all load.maxConcurrent slots
+ * busy are counted as dropped rather than queued.
+ *
+ * Every request is recorded per endpoint in an HDR histogram by the ApiClient. The run
+ * fails when the p95 or p99 of any endpoint exceeds load.p95Millis or load.p99Millis.
+ *
+ * Run it with: mvn test -Pload -Dload.rate=20 -Dload.durationSeconds=60 -Dload.p95Millis=500
+ */
+public class LoadTestLauncher {
+
+    private static final String SCENARIO_PREFIX = "SCENARIO ";
+
+    public static void main(String[] args) throws Exception {
+        Path features = Paths.get(System.getProperty("load.features", "src/resources/Features/API_Test.feature"));
+        String tags = System.getProperty("load.tags", "not @performance").trim();
+        double rate = Double.parseDouble(System.getProperty("load.rate", "10"));
+        long durationSeconds = Long.getLong("load.durationSeconds", 30);
+        int maxConcurrent = Math.max(1, Integer.getInteger("load.maxConcurrent", 100));
+        double p95Limit = Double.parseDouble(System.getProperty("load.p95Millis", "0"));
+        double p99Limit = Double.parseDouble(System.getProperty("load.p99Millis", "0"));
+        Path report = Paths.get(System.getProperty("load.report", "target/load-report.csv"));
+        if (rate <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("load.rate and load.durationSeconds must be positive");
+        }
+        // Cached responses would never reach the server, so caching is off unless asked for
+        if (System.getProperty(Constants.API_CACHE_PROPERTY) == null) {
+            System.setProperty(Constants.API_CACHE_PROPERTY, Constants.API_CACHE_OFF);
+        }
+
+        List<ScenarioRef> scenarios = ScenarioCatalog.filter(ScenarioCatalog.discover(features), tags);
+        if (scenarios.isEmpty()) {
+            throw new IllegalStateException("No scenarios in " + features + (tags.isEmpty() ? "" : " matching " + tags));
+        }
+        StepInvoker invoker = new StepInvoker(StepInvoker.discoverGlue("stepDefination"));
+        scenarios.forEach(scenario -> invoker.verify(scenario.getPickle()));
+
+        System.out.println(String.format(Locale.ROOT, "Replaying %d scenarios of %s at %.1f/s for %d s, at most %d concurrent",
+                scenarios.size(), features, rate, durationSeconds, maxConcurrent));
+        LatencyRecorder.reset();
+
+        Map<String, Histogram> scenarioLatency = new ConcurrentHashMap<>();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        LongAdder started = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        Semaphore slots = new Semaphore(maxConcurrent);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("load");
+
+        long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (long arrival = 0; ; arrival++) {
+            long scheduled = start + arrival * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            if (!slots.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+            started.increment();
+            ScenarioRef scenario = scenarios.get((int) (arrival % scenarios.size()));
+            executor.execute(() -> {
+                try {
+                    invoker.run(scenario.getPickle());
+                } catch (Throwable t) {
+                    errors.computeIfAbsent(scenario.getName() + ": " + t, key -> new LongAdder()).increment();
+                } finally {
+                    scenarioLatency.computeIfAbsent(SCENARIO_PREFIX + scenario.getName(), key -> new ConcurrentHistogram(3))
+                            .recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled)));
+                    ResponseCache.endScenario();
+                    TimingCollector.endScenario();
+                    slots.release();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(Constants.API_REQUEST_TIMEOUT_MILLIS * 2L, TimeUnit.MILLISECONDS)) {
+            System.err.println("Iterations still running after the test window, reporting without them");
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Histogram> results = new TreeMap<>(LatencyRecorder.getHistograms());
+        scenarioLatency.forEach((name, histogram) -> results.put(name, histogram.copy()));
+        System.out.println(String.format(Locale.ROOT, "Started %d iterations in %.1f s, %d dropped, %d failed",
+                started.sum(), elapsedSeconds, dropped.sum(), errors.values().stream().mapToLong(LongAdder::sum).sum()));
+        errors.forEach((error, count) -> System.out.println("ERROR x" + count.sum() + " " + error));
+
+        int exitCode = 0;
+        for (Map.Entry<String, Histogram> result : results.entrySet()) {
+            Histogram histogram = result.getValue();
+            System.out.println(String.format(Locale.ROOT, "%-50s %s, %.1f/s", result.getKey(),
+                    LatencyRecorder.describe(histogram), histogram.getTotalCount() / elapsedSeconds));
+            if (result.getKey().startsWith(SCENARIO_PREFIX)) {
+                continue;
+            }
+            if (p95Limit > 0 && LatencyRecorder.percentileMillis(histogram, 95) > p95Limit) {
+                System.out.println("  p95 above " + p95Limit + " ms");
+                exitCode = 1;
+            }
+            if (p99Limit > 0 && LatencyRecorder.percentileMillis(histogram, 99) > p99Limit) {
+                System.out.println("  p99 above " + p99Limit + " ms");
+                exitCode = 1;
+            }
+        }
+        writeReport(report, results, elapsedSeconds);
+        System.exit(exitCode);
+    }
+
+    private static void writeReport(Path report, Map<String, Histogram> results, double elapsedSeconds) throws IOException {
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+            out.println("name,count,throughput,p50_ms,p95_ms,p99_ms,max_ms");
+            results.forEach((name, histogram) -> out.println(String.format(Locale.ROOT, "\"%s\",%d,%.2f,%.1f,%.1f,%.1f,%.1f",
+                    name.replace("\"", "\"\""), histogram.getTotalCount(), histogram.getTotalCount() / elapsedSeconds,
+                    LatencyRecorder.percentileMillis(histogram, 50), LatencyRecorder.percentileMillis(histogram, 95),
+                    LatencyRecorder.percentileMillis(histogram, 99), histogram.getMaxValue() / 1000.0)));
+        }
+        System.out.println("Load report written to " + report);
+    }
+}
@@ -0,0 +1,25 @@
+package runner;
+
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectDirectories;
+import org.junit.platform.suite.api.Suite;
+
+import static io.cucumber.junit.platform.engine.Constants.FILTER_TAGS_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+
+/**
+ * Runs the features on the Cucumber JUnit Platform engine so scenarios execute in parallel.
+ * Parallelism is configured in junit-platform.properties and can be overridden with
+ * -Dcucumber.execution.parallel.config.fixed.parallelism=N (or -Dcucumber.parallelism=N with -Pparallel).
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectDirectories("src/resources/Features")
+@ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "stepDefination")
+@ConfigurationParameter(key = FILTER_TAGS_PROPERTY_NAME, value = "not @performance")
+@ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, value = "pretty, runner.TracingPlugin")
+public class ParallelTestRunner {
+
+}
@@ -0,0 +1,178 @@
+package runner;
+
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Examples;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.messages.types.PickleTag;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Scenario;
+import io.cucumber.messages.types.TableRow;
+import io.cucumber.tagexpressions.Expression;
+import io.cucumber.tagexpressions.TagExpressionParser;
+import utilities.ScenarioHistory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ScenarioCatalog discovers the scenarios (pickles) of the feature files together with the
+ * location Cucumber uses to address them, e.g. "src/resources/Features/API_Test.feature:13".
+ * Scenario outlines produce one entry per examples row.
+ */
+public class ScenarioCatalog {
+
+    /**
+     * Discover all scenarios below a features directory
+     * @param featuresDir Directory containing .feature files
+     * @return Scenarios in file and line order
+     * @throws IOException if a feature file cannot be read
+     */
+    public static List<ScenarioRef> discover(Path featuresDir) throws IOException {
+        List<Path> featureFiles;
+        try (Stream<Path> files = Files.walk(featuresDir)) {
+            featureFiles = files.filter(file -> file.toString().endsWith(".feature"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        List<ScenarioRef> scenarios = new ArrayList<>();
+        for (Path featureFile : featureFiles) {
+            scenarios.addAll(parse(featureFile));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Keep the scenarios matching a tag expression
+     * @param scenarios Discovered scenarios
+     * @param tags Tag expression, e.g. "not @performance"; blank keeps all scenarios
+     * @return Matching scenarios in their original order
+     */
+    public static List<ScenarioRef> filter(List<ScenarioRef> scenarios, String tags) {
+        if (tags == null || tags.trim().isEmpty()) {
+            return scenarios;
+        }
+        Expression tagExpression = TagExpressionParser.parse(tags.trim());
+        return scenarios.stream()
+                .filter(scenario -> tagExpression.evaluate(scenario.getTags()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build the identifier used for a scenario in plans and duration history
+     * @param featurePath Feature file path relative to the project directory
+     * @param line Line of the scenario or examples row
+     * @return Identifier in "path:line" form
+     */
+    public static String scenarioId(String featurePath, long line) {
+        return featurePath + ":" + line;
+    }
+
+    private static List<ScenarioRef> parse(Path featureFile) throws IOException {
+        GherkinParser parser = GherkinParser.builder()
+                .includeSource(false)
+                .includeGherkinDocument(true)
+                .includePickles(true)
+                .build();
+
+        String featurePath = ScenarioHistory.relativePath(featureFile.toAbsolutePath().toString());
+        Map<String, Long> linesById = new HashMap<>();
+        List<ScenarioRef> scenarios = new ArrayList<>();
+
+        List<Envelope> envelopes;
+        try (Stream<Envelope> stream = parser.parse(featureFile)) {
+            envelopes = stream.collect(Collectors.toList());
+        }
+        for (Envelope envelope : envelopes) {
+            envelope.getGherkinDocument().ifPresent(document -> collectLines(document, linesById));
+            envelope.getParseError().ifPresent(error -> {
+                throw new IllegalStateException("Cannot parse " + featurePath + ": " + error.getMessage());
+            });
+        }
+        for (Envelope envelope : envelopes) {
+            if (envelope.getPickle().isPresent()) {
+                Pickle pickle = envelope.getPickle().get();
+                List<String> astNodeIds = pickle.getAstNodeIds();
+                Long line = linesById.get(astNodeIds.get(astNodeIds.size() - 1));
+                scenarios.add(new ScenarioRef(featurePath, line == null ? 0 : line, pickle));
+            }
+        }
+        return scenarios;
+    }
+
+    private static void collectLines(GherkinDocument document, Map<String, Long> linesById) {
+        document.getFeature().ifPresent(feature -> {
+            for (FeatureChild child : feature.getChildren()) {
+                child.getScenario().ifPresent(scenario -> collectLines(scenario, linesById));
+                child.getRule().ifPresent(rule -> {
+                    for (RuleChild ruleChild : rule.getChildren()) {
+                        ruleChild.getScenario().ifPresent(scenario -> collectLines(scenario, linesById));
+                    }
+                });
+            }
+        });
+    }
+
+    private static void collectLines(Scenario scenario, Map<String, Long> linesById) {
+        linesById.put(scenario.getId(), scenario.getLocation().getLine());
+        for (Examples examples : scenario.getExamples()) {
+            for (TableRow row : examples.getTableBody()) {
+                linesById.put(row.getId(), row.getLocation().getLine());
+            }
+        }
+    }
+
+    /**
+     * A single executable scenario and the location Cucumber uses to select it
+     */
+    public static class ScenarioRef {
+        private final String featurePath;
+        private final long line;
+        private final Pickle pickle;
+
+        ScenarioRef(String featurePath, long line, Pickle pickle) {
+            this.featurePath = featurePath;
+            this.line = line;
+            this.pickle = pickle;
+        }
+
+        public String getId() {
+            return scenarioId(featurePath, line);
+        }
+
+        public String getFeaturePath() {
+            return featurePath;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getName() {
+            return pickle.getName();
+        }
+
+        public List<String> getTags() {
+            return pickle.getTags().stream().map(PickleTag::getName).collect(Collectors.toList());
+        }
+
+        public Pickle getPickle() {
+            return pickle;
+        }
+
+        @Override
+        public String toString() {
+            return getId() + " (" + getName() + ")";
+        }
+    }
+}
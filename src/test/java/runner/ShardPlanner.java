@@ -0,0 +1,85 @@
+package runner;
+
+import runner.ScenarioCatalog.ScenarioRef;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * ShardPlanner splits scenarios into shards of roughly equal expected run time.
+ * Expected run time comes from the scenario history; scenarios without history are
+ * estimated with the average of the known ones.
+ */
+public class ShardPlanner {
+
+    /** Estimate used when no scenario has any recorded duration */
+    static final long DEFAULT_SCENARIO_MILLIS = 5000;
+
+    /**
+     * Assign scenarios to shards, longest first, always to the shard with the least expected time
+     * @param scenarios Scenarios to distribute
+     * @param durations Known scenario durations in milliseconds keyed by scenario id
+     * @param shardCount Number of shards wanted
+     * @return Non-empty shards
+     */
+    public static List<Shard> plan(List<ScenarioRef> scenarios, Map<String, Long> durations, int shardCount) {
+        long fallback = (long) durations.values().stream()
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(DEFAULT_SCENARIO_MILLIS);
+
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, shardCount); i++) {
+            shards.add(new Shard(i));
+        }
+
+        List<ScenarioRef> longestFirst = new ArrayList<>(scenarios);
+        longestFirst.sort(Comparator.comparingLong(
+                (ScenarioRef scenario) -> durations.getOrDefault(scenario.getId(), fallback)).reversed());
+
+        for (ScenarioRef scenario : longestFirst) {
+            Shard lightest = shards.stream().min(Comparator.comparingLong(Shard::getEstimatedMillis)).get();
+            lightest.add(scenario, durations.getOrDefault(scenario.getId(), fallback));
+        }
+
+        return shards.stream().filter(shard -> !shard.getScenarios().isEmpty()).collect(Collectors.toList());
+    }
+
+    /**
+     * A group of scenarios executed by one forked JVM
+     */
+    public static class Shard {
+        private final int index;
+        private final List<ScenarioRef> scenarios = new ArrayList<>();
+        private long estimatedMillis;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        void add(ScenarioRef scenario, long millis) {
+            scenarios.add(scenario);
+            estimatedMillis += millis;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<ScenarioRef> getScenarios() {
+            return scenarios;
+        }
+
+        public long getEstimatedMillis() {
+            return estimatedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Shard %d: %d scenarios, estimated %.1fs", index, scenarios.size(), estimatedMillis / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package runner;
+
+import ExtentListeners.ExtentReportMerger;
+import runner.ScenarioCatalog.ScenarioRef;
+import runner.ShardPlanner.Shard;
+import utilities.Constants;
+import utilities.ScenarioHistory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ShardedSuiteLauncher splits the feature files into shards balanced by the scenario
+ * duration history and runs every shard in its own JVM with the Cucumber command line runner.
+ * With more shards than forks the longest shards are started first.
+ * Each shard writes its own Cucumber JSON result and streams its report events to a log;
+ * when all shards are finished the event logs are merged into a single Extent report.
+ *
+ * Run it with: mvn test -Psharded -Dshard.forks=4 -Dshard.count=16
+ */
+public class ShardedSuiteLauncher {
+
+    /** System properties that belong to the launching JVM and are not forwarded to shards */
+    private static final String[] JVM_PROPERTY_PREFIXES = {
+            "java.", "javax.", "jdk.", "sun.", "os.", "user.", "file.", "line.", "path.", "native.",
+            "stdout.", "stderr.", "awt.", "socksNonProxyHosts", "classworlds.", "maven.", "library.",
+            "guice.", "exec.", "shard."
+    };
+
+    public static void main(String[] args) throws Exception {
+        int forks = Integer.getInteger("shard.forks", 0);
+        if (forks <= 0) {
+            forks = Runtime.getRuntime().availableProcessors();
+        }
+        int shardCount = Integer.getInteger("shard.count", 0);
+        if (shardCount <= 0) {
+            shardCount = forks;
+        }
+        int threads = Integer.getInteger("shard.threads", 1);
+        Path featuresDir = Paths.get(System.getProperty("shard.features", "src/resources/Features"));
+        Path resultsDir = Paths.get(System.getProperty("shard.results", "target/shards"));
+
+        List<ScenarioRef> scenarios = ScenarioCatalog.filter(ScenarioCatalog.discover(featuresDir),
+                System.getProperty("shard.tags", "not @performance"));
+        Map<String, Long> durations = ScenarioHistory.load();
+        List<Shard> shards = ShardPlanner.plan(scenarios, durations, shardCount);
+        // Longest shards are dispatched first so the short ones fill the remaining fork slots
+        shards.sort(Comparator.comparingLong(Shard::getEstimatedMillis).reversed());
+        System.out.println("Running " + scenarios.size() + " scenarios in " + shards.size() + " shards on "
+                + forks + " forks (" + durations.size() + " with known duration)");
+
+        deleteRecursively(resultsDir);
+        ExecutorService forkSlots = Executors.newFixedThreadPool(forks);
+        List<Future<Integer>> exitCodes = new ArrayList<>();
+        for (Shard shard : shards) {
+            System.out.println(shard);
+            exitCodes.add(forkSlots.submit(() -> {
+                int shardExit = launch(shard, resultsDir, threads).waitFor();
+                System.out.println("Shard " + shard.getIndex() + " finished with exit code " + shardExit
+                        + ", log: " + resultsDir.resolve("shard-" + shard.getIndex()).resolve("console.log"));
+                return shardExit;
+            }));
+        }
+
+        int exitCode = 0;
+        for (Future<Integer> shardExit : exitCodes) {
+            exitCode = Math.max(exitCode, shardExit.get());
+        }
+        forkSlots.shutdown();
+
+        ScenarioHistory.compact();
+        ExtentReportMerger.merge(resultsDir, System.getProperty("user.dir") + "/reports/Extent_merged_"
+                + new Date().toString().replace(":", "_").replace(" ", "_") + ".html");
+        System.exit(exitCode);
+    }
+
+    /**
+     * Start a JVM running the scenarios of one shard
+     * @param shard Shard to run
+     * @param resultsDir Directory receiving the shard output
+     * @param threads Cucumber threads used inside the shard
+     * @return Started process
+     * @throws IOException if the process cannot be started
+     */
+    static Process launch(Shard shard, Path resultsDir, int threads) throws IOException {
+        Path shardDir = resultsDir.resolve("shard-" + shard.getIndex());
+        Files.createDirectories(shardDir);
+
+        // Scenario locations are passed through a rerun file to keep the command line short
+        Path scenarioFile = shardDir.resolve("scenarios.txt");
+        Files.write(scenarioFile, shard.getScenarios().stream().map(ScenarioRef::getId).collect(Collectors.toList()),
+                StandardCharsets.UTF_8);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Dshard.index=" + shard.getIndex());
+        command.addAll(forwardedProperties());
+        // Each shard streams its report events, merged with everything they logged afterwards
+        command.add("-D" + Constants.REPORT_MODE_PROPERTY + "=" + Constants.REPORT_MODE_STREAM);
+        command.add("-D" + Constants.REPORT_EVENT_LOG_PROPERTY + "=" + shardDir.resolve(ExtentReportMerger.EVENT_LOG_NAME));
+        // Each shard writes its own traces, the last -D of a property wins
+        command.add("-D" + Constants.TRACING_FILE_PROPERTY + "=" + shardDir.resolve("traces.jsonl"));
+        command.add("-D" + Constants.TRACING_FLAMEGRAPH_PROPERTY + "=" + shardDir.resolve("trace-flamegraph.txt"));
+        command.add("io.cucumber.core.cli.Main");
+        command.add("--glue");
+        command.add("stepDefination");
+        command.add("--plugin");
+        command.add("json:" + shardDir.resolve("cucumber.json"));
+        command.add("--plugin");
+        command.add(TracingPlugin.class.getName());
+        command.add("--threads");
+        command.add(String.valueOf(threads));
+        command.add("@" + scenarioFile);
+
+        File log = shardDir.resolve("console.log").toFile();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+
+    private static List<String> forwardedProperties() {
+        List<String> properties = new ArrayList<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            boolean jvmOwned = false;
+            for (String prefix : JVM_PROPERTY_PREFIXES) {
+                jvmOwned |= name.startsWith(prefix);
+            }
+            if (!jvmOwned) {
+                properties.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        return properties;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> files = Files.walk(dir)) {
+            paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
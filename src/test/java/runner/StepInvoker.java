@@ -0,0 +1,189 @@
+package runner;
+
+import io.cucumber.cucumberexpressions.Argument;
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.But;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.messages.types.PickleStep;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StepInvoker runs the steps of a scenario without a Cucumber runtime. Step texts are
+ * matched against the cucumber expressions of the step definition annotations, so the
+ * regular step definitions are reused as they are. Glue classes are instantiated once
+ * per scenario run and hooks are not run. Used by the load generator, where a full
+ * runtime per iteration would cost more than the requests themselves.
+ */
+class StepInvoker {
+
+    private static final List<Class<? extends Annotation>> STEP_ANNOTATIONS = Arrays.asList(
+            Given.class, When.class, Then.class, And.class, But.class);
+
+    private final List<StepDefinition> definitions = new ArrayList<>();
+    private final Map<String, ResolvedStep> resolved = new ConcurrentHashMap<>();
+
+    StepInvoker(List<Class<?>> glueClasses) {
+        ExpressionFactory expressions = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+        for (Class<?> glueClass : glueClasses) {
+            for (Method method : glueClass.getMethods()) {
+                for (Class<? extends Annotation> annotationType : STEP_ANNOTATIONS) {
+                    Annotation annotation = method.getAnnotation(annotationType);
+                    if (annotation != null) {
+                        definitions.add(new StepDefinition(method, expressions.createExpression(patternOf(annotation))));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the classes of a glue package in the class directories of the class path
+     * @param gluePackage Package such as "stepDefination"
+     * @return Glue classes
+     * @throws IOException if the class path cannot be listed
+     */
+    static List<Class<?>> discoverGlue(String gluePackage) throws IOException {
+        List<Class<?>> classes = new ArrayList<>();
+        ClassLoader classLoader = StepInvoker.class.getClassLoader();
+        for (URL url : Collections.list(classLoader.getResources(gluePackage.replace('.', '/')))) {
+            if (!"file".equals(url.getProtocol())) {
+                continue;
+            }
+            File[] files;
+            try {
+                files = new File(url.toURI()).listFiles((dir, name) -> name.endsWith(".class") && !name.contains("$"));
+            } catch (URISyntaxException e) {
+                throw new IOException("Cannot list glue package " + url, e);
+            }
+            for (File file : files == null ? new File[0] : files) {
+                String className = gluePackage + "." + file.getName().replace(".class", "");
+                try {
+                    classes.add(Class.forName(className, false, classLoader));
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Cannot load glue class " + className, e);
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Check that every step of a scenario matches exactly one step definition
+     * @param pickle Scenario
+     */
+    void verify(Pickle pickle) {
+        for (PickleStep step : pickle.getSteps()) {
+            resolve(step);
+        }
+    }
+
+    /**
+     * Run all steps of a scenario on the current thread
+     * @param pickle Scenario
+     * @throws Throwable whatever a step threw
+     */
+    void run(Pickle pickle) throws Throwable {
+        Map<Class<?>, Object> glue = new HashMap<>();
+        for (PickleStep step : pickle.getSteps()) {
+            ResolvedStep resolvedStep = resolve(step);
+            Method method = resolvedStep.definition.method;
+            Object target = glue.get(method.getDeclaringClass());
+            if (target == null) {
+                target = method.getDeclaringClass().getDeclaredConstructor().newInstance();
+                glue.put(method.getDeclaringClass(), target);
+            }
+            try {
+                method.invoke(target, resolvedStep.arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private ResolvedStep resolve(PickleStep step) {
+        if (step.getArgument().isPresent()) {
+            throw new IllegalStateException("Data tables and doc strings are not supported: " + step.getText());
+        }
+        return resolved.computeIfAbsent(step.getText(), text -> {
+            ResolvedStep match = null;
+            for (StepDefinition definition : definitions) {
+                List<Argument<?>> arguments = definition.expression.match(text, definition.method.getGenericParameterTypes());
+                if (arguments == null) {
+                    continue;
+                }
+                if (match != null) {
+                    throw new IllegalStateException("Ambiguous step \"" + text + "\": " + match.definition + " and " + definition);
+                }
+                Object[] values = new Object[arguments.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = arguments.get(i).getValue();
+                }
+                match = new ResolvedStep(definition, values);
+            }
+            if (match == null) {
+                throw new IllegalStateException("Undefined step: " + text);
+            }
+            return match;
+        });
+    }
+
+    private static String patternOf(Annotation annotation) {
+        try {
+            return (String) annotation.annotationType().getMethod("value").invoke(annotation);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read step pattern of " + annotation, e);
+        }
+    }
+
+    /**
+     * Step definition method and its expression
+     */
+    private static class StepDefinition {
+        private final Method method;
+        private final Expression expression;
+
+        StepDefinition(Method method, Expression expression) {
+            this.method = method;
+            this.expression = expression;
+        }
+
+        @Override
+        public String toString() {
+            return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        }
+    }
+
+    /**
+     * Step text matched to its definition, with the converted arguments
+     */
+    private static class ResolvedStep {
+        private final StepDefinition definition;
+        private final Object[] arguments;
+
+        ResolvedStep(StepDefinition definition, Object[] arguments) {
+            this.definition = definition;
+            this.arguments = arguments;
+        }
+    }
+}
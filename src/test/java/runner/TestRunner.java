@@ -8,9 +8,11 @@ import org.junit.runner.RunWith;
 @CucumberOptions(
         features = "src/resources/Features",
         glue= {"stepDefination"},
+        tags = "not @performance", // Timing gates run on their own, see README Performance Steps
         plugin = {
                 "pretty",
-                "ExtentListeners/ExtentTestManager" // Initializes ExtentReports
+                "ExtentListeners/ExtentTestManager", // Initializes ExtentReports
+                "runner.TracingPlugin" // Spans per scenario and step with -Dtracing.enabled=true
         },
         monochrome = true,
         dryRun=false
@@ -0,0 +1,67 @@
+package runner;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import utilities.Tracing;
+
+/**
+ * Opens a {@link Tracing} span per scenario and one per step or hook inside it. Cucumber sends
+ * the events of a scenario on the thread running it, so the spans of page objects, WebDriver
+ * commands and API calls made by the step definitions nest under the step. Does nothing unless
+ * -Dtracing.enabled=true.
+ */
+public class TracingPlugin implements ConcurrentEventListener {
+
+    private static final AttributeKey<String> SCENARIO_URI = AttributeKey.stringKey("scenario.uri");
+    private static final AttributeKey<Long> SCENARIO_LINE = AttributeKey.longKey("scenario.line");
+    private static final AttributeKey<String> SCENARIO_TAGS = AttributeKey.stringKey("scenario.tags");
+    private static final AttributeKey<Long> STEP_LINE = AttributeKey.longKey("step.line");
+    private static final AttributeKey<String> HOOK_LOCATION = AttributeKey.stringKey("hook.location");
+    private static final AttributeKey<String> STATUS = AttributeKey.stringKey("cucumber.status");
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        if (!Tracing.isEnabled()) {
+            return;
+        }
+        publisher.registerHandlerFor(TestCaseStarted.class, event -> {
+            TestCase testCase = event.getTestCase();
+            Tracing.begin("Scenario: " + testCase.getName(), Attributes.of(
+                    SCENARIO_URI, String.valueOf(testCase.getUri()),
+                    SCENARIO_LINE, (long) testCase.getLocation().getLine(),
+                    SCENARIO_TAGS, String.join(" ", testCase.getTags())));
+        });
+        publisher.registerHandlerFor(TestStepStarted.class, event -> {
+            TestStep step = event.getTestStep();
+            if (step instanceof PickleStepTestStep) {
+                PickleStepTestStep pickleStep = (PickleStepTestStep) step;
+                Tracing.begin(pickleStep.getStep().getKeyword().trim() + " " + pickleStep.getStep().getText(),
+                        Attributes.of(STEP_LINE, (long) pickleStep.getStep().getLine()));
+            } else if (step instanceof HookTestStep) {
+                Tracing.begin("@" + ((HookTestStep) step).getHookType(),
+                        Attributes.of(HOOK_LOCATION, step.getCodeLocation()));
+            }
+        });
+        publisher.registerHandlerFor(TestStepFinished.class, event -> {
+            if (event.getTestStep() instanceof PickleStepTestStep || event.getTestStep() instanceof HookTestStep) {
+                end(event.getResult());
+            }
+        });
+        publisher.registerHandlerFor(TestCaseFinished.class, event -> end(event.getResult()));
+    }
+
+    private static void end(Result result) {
+        Tracing.end(Attributes.of(STATUS, result.getStatus().name()), result.getError());
+    }
+}
@@ -0,0 +1,117 @@
+package runner;
+
+import ExtentListeners.ExtentReportQueue;
+import io.cucumber.core.cli.Main;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import runner.ScenarioCatalog.ScenarioRef;
+import utilities.ScenarioHistory;
+import utilities.VirtualThreads;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * VirtualThreadSuiteLauncher runs every scenario in its own Cucumber runtime on its own
+ * virtual thread. API scenarios spend most of their time waiting for responses, and a
+ * virtual thread waiting on the network releases its carrier thread, so hundreds of
+ * scenarios can overlap their I/O on a few carrier threads. All scenarios share the JVM,
+ * the pooled ApiClient and one Extent report.
+ * Virtual threads need Java 21; on older JVMs every scenario gets a platform thread.
+ *
+ * Run it with: mvn test -Pvirtual -Dvt.maxConcurrent=256
+ */
+public class VirtualThreadSuiteLauncher {
+
+    public static void main(String[] args) throws Exception {
+        Path features = Paths.get(System.getProperty("vt.features", "src/resources/Features/API_Test.feature"));
+        int maxConcurrent = Math.max(1, Integer.getInteger("vt.maxConcurrent", 256));
+        System.setProperty("cucumber.publish.quiet", "true");
+
+        List<ScenarioRef> scenarios = ScenarioCatalog.filter(ScenarioCatalog.discover(features),
+                System.getProperty("vt.tags", "not @performance"));
+        System.out.println("Running " + scenarios.size() + " scenarios of " + features + ", at most " + maxConcurrent
+                + " at a time on " + (VirtualThreads.isAvailable() ? "virtual" : "platform (Java 21 required for virtual)")
+                + " threads");
+
+        long start = System.nanoTime();
+        Semaphore slots = new Semaphore(maxConcurrent);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("scenario");
+        List<Future<Byte>> exitCodes = new ArrayList<>();
+        for (ScenarioRef scenario : scenarios) {
+            slots.acquire();
+            exitCodes.add(executor.submit(() -> {
+                try {
+                    return Main.run(new String[]{
+                            "--glue", "stepDefination",
+                            "--plugin", ResultCollector.class.getName(),
+                            "--plugin", TracingPlugin.class.getName(),
+                            "--monochrome",
+                            "--no-summary",
+                            scenario.getId()
+                    }, VirtualThreadSuiteLauncher.class.getClassLoader());
+                } finally {
+                    slots.release();
+                }
+            }));
+        }
+
+        int exitCode = 0;
+        for (Future<Byte> scenarioExit : exitCodes) {
+            exitCode = Math.max(exitCode, scenarioExit.get());
+        }
+        executor.shutdown();
+
+        System.out.println("Finished " + scenarios.size() + " scenarios in " + (System.nanoTime() - start) / 1_000_000
+                + " ms: " + ResultCollector.getCounts());
+        ResultCollector.getFailures().forEach(failure -> System.out.println("FAILED " + failure));
+        ScenarioHistory.compact();
+        ExtentReportQueue.flushNow();
+        System.exit(exitCode);
+    }
+
+    /**
+     * Collects the results of all Cucumber runtimes started by the launcher
+     */
+    public static class ResultCollector implements ConcurrentEventListener {
+        private static final Map<Status, LongAdder> counts = new ConcurrentHashMap<>();
+        private static final List<String> failures = new ArrayList<>();
+
+        @Override
+        public void setEventPublisher(EventPublisher publisher) {
+            publisher.registerHandlerFor(TestCaseFinished.class, event -> {
+                Status status = event.getResult().getStatus();
+                counts.computeIfAbsent(status, key -> new LongAdder()).increment();
+                if (status == Status.FAILED) {
+                    synchronized (failures) {
+                        failures.add(event.getTestCase().getUri() + ":" + event.getTestCase().getLocation().getLine()
+                                + " " + event.getTestCase().getName());
+                    }
+                }
+            });
+        }
+
+        static Map<Status, Long> getCounts() {
+            Map<Status, Long> result = new TreeMap<>();
+            counts.forEach((status, count) -> result.put(status, count.sum()));
+            return result;
+        }
+
+        static List<String> getFailures() {
+            synchronized (failures) {
+                return new ArrayList<>(failures);
+            }
+        }
+    }
+}
@@ -7,44 +7,30 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.ProtocolException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import utilities.ApiClient;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Map;
 
 import static stepDefination.ReqresUserService.*;
-import static stepDefination.Test_Steps.code;
-import static stepDefination.Test_Steps.response;
 
 public class PostStepdefs {
 
-    static StringBuilder status_response = null;
-    static Integer  status_code=-1;
+    StringBuilder status_response = null;
+    Integer  status_code=-1;
     @Given("the system is running and the Create User API is available")
     public void theSystemIsRunningAndTheCreateUserAPIIsAvailable() {
-        HttpURLConnection connection = null;
         try {
-            URL url = new URL(BASE_URL);
-
-            // Open a connection to the URL
-            connection = (HttpURLConnection) url.openConnection();
-
-            // Set the request method to HEAD for efficiency
-            connection.setRequestMethod("HEAD");
-
-            // Set a connection timeout (e.g., 5 seconds)
-            connection.setConnectTimeout(5000);
-
-            // Connect to the server
-            connection.connect();
+            // HEAD request for efficiency, on the shared client so the connection is reused by the scenario
+            HttpRequest request = ApiClient.getInstance().newRequest(getBaseUrl())
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
 
             // Get the response code
-            int responseCode = connection.getResponseCode();
+            int responseCode = ApiClient.getInstance().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
 
             // Consider any 2xx response code as healthy
             if (responseCode >= 200 && responseCode < 300) {
@@ -56,11 +42,6 @@ public class PostStepdefs {
         } catch (Exception e) {
             System.err.println("API Server is DOWN: " + e.getMessage());
             throw new RuntimeException("API server is down or not reachable: " + e.getMessage(), e);
-        } finally {
-            if (connection != null) {
-                // Disconnect to release resources
-                connection.disconnect();
-            }
         }
     }
 
@@ -1,6 +1,8 @@
 package stepDefination;
 
 import ExtentListeners.ExtentTestManager;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.When;
 import io.cucumber.java.en.Then;
@@ -11,9 +13,12 @@ import org.junit.Assert;
 import PageObjects.*;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.remote.tracing.opentelemetry.SeleniumSpanExporter;
 import utilities.Constants;
 import utilities.DriverFactory;
+import utilities.LatencyRecorder;
+import utilities.ResourceBlocker;
+import utilities.TimingCollector;
+import org.HdrHistogram.Histogram;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -38,6 +43,18 @@ public class SauceDemoStepDefinitions {
     private double expectedTax = 0.0;
     private double expectedTotal = 0.0;
     private List<String> addedItems;
+    private boolean uiLoginRequired;
+
+    /**
+     * Remember whether the scenario must log in through the login form, and select the
+     * resource profile of its browser from a @resources:&lt;profile&gt; tag
+     * @param scenario Current scenario
+     */
+    @Before
+    public void rememberLoginMode(Scenario scenario) {
+        uiLoginRequired = scenario.getSourceTagNames().contains(Constants.UI_LOGIN_TAG);
+        ResourceBlocker.selectProfile(scenario.getSourceTagNames());
+    }
 
     // ========================
     // NAVIGATION STEP DEFINITIONS
@@ -91,8 +108,8 @@ public class SauceDemoStepDefinitions {
 
             System.out.println("Attempting login with username: " + username);
 
-            // Perform login
-            inventoryPage = loginPage.login(username, password);
+            // Perform login, scenarios tagged @uiLogin always use the login form
+            inventoryPage = uiLoginRequired ? loginPage.login(username, password) : loginPage.loginAs(username, password);
 
             // Verify successful login
             Assert.assertTrue("User should be successfully logged in and redirected to inventory page",
@@ -492,6 +509,39 @@ public class SauceDemoStepDefinitions {
         }
     }
 
+    // ========================
+    // PERFORMANCE STEP DEFINITIONS
+    // ========================
+
+    /**
+     * Open the inventory page and verify that no inventory page load of the scenario took longer than the limit
+     * @param seconds Limit in seconds
+     */
+    @Then("the page load time of the inventory page should be below {int} s")
+    public void theInventoryPageLoadTimeShouldBeBelowSeconds(int seconds) {
+        theInventoryPageLoadTimeShouldBeBelowMillis(seconds * 1000);
+    }
+
+    /**
+     * Open the inventory page and verify that no inventory page load of the scenario took longer than the limit
+     * @param millis Limit in milliseconds
+     */
+    @Then("the page load time of the inventory page should be below {int} ms")
+    public void theInventoryPageLoadTimeShouldBeBelowMillis(int millis) {
+        inventoryPage = new InventoryPage(DriverFactory.getDriver()).open();
+        Histogram loads = TimingCollector.getHistogram(InventoryPage.class.getSimpleName());
+        double slowestMillis = loads.getMaxValue() / 1000.0;
+        String timings = "Inventory page loads: " + LatencyRecorder.describe(loads);
+        Assert.assertTrue("Inventory page should have loaded", loads.getTotalCount() > 0);
+        if (slowestMillis < millis) {
+            ExtentTestManager.logPass(timings);
+        } else {
+            ExtentTestManager.logFail(timings);
+        }
+        Assert.assertTrue("Inventory page load took " + slowestMillis + " ms, limit " + millis + " ms",
+                slowestMillis < millis);
+    }
+
     // ========================
     // UTILITY METHODS
     // ========================
@@ -532,11 +582,7 @@ public class SauceDemoStepDefinitions {
      * Helper method to verify page is ready for interaction
      */
     private void waitForPageToBeReady() {
-        try {
-            Thread.sleep(1000); // Brief wait for page stabilization
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        new BasePage(DriverFactory.getDriver()).waitForDomToSettle();
     }
 
     @Given("Launch Browser {string}")
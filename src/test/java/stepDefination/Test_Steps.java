@@ -7,63 +7,53 @@ import io.cucumber.java.en.When;
 import io.cucumber.java.en.Then;
 
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.http.HttpResponse;
 import java.util.*;
 import java.util.logging.Logger;
 
 import io.restassured.response.Response;
+import org.HdrHistogram.Histogram;
+import org.junit.Assert;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import stepDefination.ReqresUserService;
+import utilities.ApiClient;
+import utilities.JsonStream;
+import utilities.LatencyRecorder;
+import utilities.ReqresStub;
 
 public class Test_Steps  {
 
 
-    static String url = "https://reqres.in/api/users?page=2";
+    static String url = "/api/users?page=2";
     static Date d = new Date();
     public static Logger log = Logger.getLogger("Test_Steps");
-    public static Response response=null;
-    public static Integer code=null;
+    public Response response=null;
+    public Integer code=null;
 
 
     @Given("BaseURL {string}")
     public void baseurl(String baseurl) {
-        ReqresUserService.BASE_URL=baseurl;
+        ReqresUserService.setBaseUrl(ReqresStub.resolveBaseUrl(baseurl));
     }
 
     @Given("^authorized user")
     public int authorized_user()  throws Throwable{
         int responseCode=0;
         try {
+            HttpResponse<String> response = ApiClient.getInstance().send(
+                    ApiClient.getInstance().newRequest(ReqresUserService.getBaseUrl() + url)
+                            .header("x-api-key", ReqresUserService.API_KEY)
+                            .GET()
+                            .build());
 
-            URL obj = new URL(url);
-            HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-
-            // Set request method to GET
-            con.setRequestMethod("GET");
-
-            // Add the API key header
-            con.setRequestProperty("x-api-key", "reqres-free-v1");
-
-            responseCode = con.getResponseCode();
+            responseCode = response.statusCode();
             System.out.println("Response Code : " + responseCode);
 
-            BufferedReader in = new BufferedReader(
-                    new InputStreamReader(con.getInputStream())
-            );
-            String inputLine;
-            StringBuffer response = new StringBuffer();
-
-            while ((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
-            }
-            in.close();
-
             // Print the response
-            System.out.println(response.toString());
+            System.out.println(response.body());
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -103,25 +93,39 @@ public class Test_Steps  {
 
     @When("status is {int}")
     public void statusIsStatus_code(Integer statusCode) throws Throwable {
-        if(authorized_user()==statusCode)
-            ExtentTestManager.logPass("Status received => " + authorized_user());
+        int receivedStatus = authorized_user();
+        if(receivedStatus==statusCode)
+            ExtentTestManager.logPass("Status received => " + receivedStatus);
         else
-            ExtentTestManager.logFail("Status received => " + authorized_user());
+            ExtentTestManager.logFail("Status received => " + receivedStatus);
+    }
+
+    @Then("the p{int} latency of {string} over {int} calls should be below {int} ms")
+    public void thePercentileLatencyShouldBeBelow(int percentile, String endPoint, int calls, int limitMillis) throws IOException {
+        Histogram latency = ReqresUserService.timeGetRequests(endPoint, calls);
+        double percentileMillis = LatencyRecorder.percentileMillis(latency, percentile);
+        String timings = "GET " + endPoint + " over " + calls + " calls: " + LatencyRecorder.describe(latency);
+        if (percentileMillis < limitMillis)
+            ExtentTestManager.logPass(timings);
+        else
+            ExtentTestManager.logFail(timings);
+        Assert.assertTrue("p" + percentile + " latency of " + endPoint + " was " + percentileMillis + " ms, limit "
+                + limitMillis + " ms", percentileMillis < limitMillis);
     }
 
     @Then("I should see total users count equals the number of user ids {string}")
     public void iShouldSeeTotalUsersCountEqualsTheNumberOfUserIds(String endPoint) {
-        Set<Integer> idSet= new HashSet<Integer>();
+        Set<Object> idSet= new HashSet<Object>();
+        long totalUsersCount = 0;
         try {
-            JSONArray usersArray = ReqresUserService.getAllUsersDetailsByPage(endPoint);
-            for (int i = 0; i < usersArray.length(); i++) {
-                JSONObject obj = usersArray.getJSONObject(i);
-                int id = obj.getInt("id");
-                idSet.add(id);
-
+            // One streamed walk over all pages reads only the ids and counts the users
+            for (JsonStream.Result page : ReqresUserService.streamAllPages(endPoint,
+                    JsonStream.select("data[*].id").count("data[*]"))) {
+                idSet.addAll(page.getValues("data[*].id"));
+                totalUsersCount += page.getCount("data[*]");
             }
             System.out.println("ID's: " + idSet.toString());
-            if(ReqresUserService.getTotalUsersCount(endPoint)==idSet.size()){
+            if(totalUsersCount==idSet.size()){
                 ExtentTestManager.logPass("Count is matching");
             }else{
                 ExtentTestManager.logFail("Count is mismatching");
@@ -179,25 +183,23 @@ public class Test_Steps  {
 
     @Then("I should see that every user has a unique id")
     public void iShouldSeeThatEveryUserHasAUniqueId() {
-        JSONObject jsonObject = new JSONObject(ReqresUserService.getResponse());
-        JSONArray usersArray = jsonObject.getJSONArray("data");
+        JsonStream.Result users = JsonStream.select("data[*].id")
+                .read(new StringReader(ReqresUserService.getResponse()));
+        List<Object> userIds = users.getValues("data[*].id");
 
-        Set<Integer> uniqueIds = new HashSet<>();
-        for (int i = 0; i < usersArray.length(); i++) {
-            JSONObject user = usersArray.getJSONObject(i);
-            int userId = user.getInt("id");
+        Set<Object> uniqueIds = new HashSet<>();
+        for (Object userId : userIds) {
             // Assert no duplicates
-            if(uniqueIds.contains(userId)){
+            if(!uniqueIds.add(userId)){
                 ExtentTestManager.logFail("Duplicate user id found: " + userId);
             }
-            uniqueIds.add(userId);
         }
 
         // Optionally, assert count match
-        ExtentTestManager.logPass(uniqueIds.size() == usersArray.length() ?
+        ExtentTestManager.logPass(users.isUnique("data[*].id") ?
                 "User count matches unique user ids count "+
                         uniqueIds.size() +" : User in the list are : " +
-                        ""+ usersArray.length():
+                        ""+ userIds.size():
                 "User count does not match unique user ids count" );
     }
 }
\ No newline at end of file